@@ -5,8 +5,6 @@ import android.graphics.Bitmap;
 import android.graphics.BitmapFactory;
 import android.util.Base64;
 
-import java.io.ByteArrayOutputStream;
-
 /**
  * Created by takusemba on 2017/09/10.
  */
@@ -21,10 +19,8 @@ public class ImageClient {
         this.prefs = prefs;
     }
 
-    public void saveBitmap(Bitmap bitmap) {
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        bitmap.compress(Bitmap.CompressFormat.PNG, 100, baos);
-        String bitmapStr = Base64.encodeToString(baos.toByteArray(), Base64.DEFAULT);
+    public void saveImage(byte[] image) {
+        String bitmapStr = Base64.encodeToString(image, Base64.DEFAULT);
         SharedPreferences.Editor editor = prefs.edit();
         editor.putString(KEY_BITMAP_STRING, bitmapStr);
         editor.apply();
@@ -18,8 +18,9 @@ import android.widget.ImageView;
 import android.widget.ProgressBar;
 import android.widget.RelativeLayout;
 
+import com.takusemba.cropme.CropTask;
 import com.takusemba.cropme.CropView;
-import com.takusemba.cropme.OnCropListener;
+import com.takusemba.cropme.OnCropToListener;
 import com.takusemba.cropmesample.R;
 import com.takusemba.cropmesample.clients.AlbumClient;
 import com.takusemba.cropmesample.clients.ImageClient;
@@ -28,8 +29,11 @@ import com.takusemba.cropmesample.models.Photo;
 import com.takusemba.cropmesample.ui.OnPhotoClickListener;
 import com.takusemba.cropmesample.ui.adapters.AlbumAdapter;
 
+import java.io.ByteArrayOutputStream;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class CropActivity extends AppCompatActivity {
 
@@ -44,6 +48,9 @@ public class CropActivity extends AppCompatActivity {
     private CropView cropView;
     private ProgressBar progressBar;
 
+    private ExecutorService executor;
+    private CropTask cropTask;
+
     private static final int REQUEST_CODE_PERMISSION = 100;
 
     @Override
@@ -52,12 +59,14 @@ public class CropActivity extends AppCompatActivity {
         setContentView(R.layout.activity_crop);
         findViewsByIds();
 
+        executor = Executors.newSingleThreadExecutor();
         albumClient = new AlbumClient(this);
         imageClient = new ImageClient(PreferenceManager.getDefaultSharedPreferences(getApplicationContext()));
         OnPhotoClickListener listener = new OnPhotoClickListener() {
             @Override
             public void onPhotoClicked(Photo photo) {
-                cropView.setUri(photo.uri);
+                cancelCrop();
+                cropView.setUri(photo.uri, photo.bitmap);
             }
         };
         adapter = new AlbumAdapter(CropActivity.this, new ArrayList<Album>(), listener);
@@ -72,15 +81,20 @@ public class CropActivity extends AppCompatActivity {
         cropButton.setOnClickListener(new View.OnClickListener() {
             @Override
             public void onClick(View v) {
-                cropView.crop(new OnCropListener() {
+                cancelCrop();
+                progressBar.setVisibility(View.VISIBLE);
+                cropView.setEnabled(false);
+                final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+                cropTask = cropView.cropTo(stream, Bitmap.CompressFormat.PNG, 100, executor, new OnCropToListener() {
                     @Override
-                    public void onSuccess(Bitmap bitmap) {
-                        saveBitmapAndStartActivity(bitmap);
+                    public void onSuccess() {
+                        saveImageAndStartActivity(stream.toByteArray());
                     }
 
                     @Override
                     public void onFailure() {
-
+                        progressBar.setVisibility(View.GONE);
+                        cropView.setEnabled(true);
                     }
                 });
             }
@@ -101,6 +115,13 @@ public class CropActivity extends AppCompatActivity {
         }
     }
 
+    @Override
+    protected void onDestroy() {
+        cancelCrop();
+        executor.shutdown();
+        super.onDestroy();
+    }
+
     @Override
     public void onRequestPermissionsResult(int requestCode, @NonNull String[] permissions, @NonNull int[] grantResults) {
 
@@ -125,13 +146,21 @@ public class CropActivity extends AppCompatActivity {
         progressBar = findViewById(R.id.progress);
     }
 
-    private void saveBitmapAndStartActivity(final Bitmap bitmap) {
-        progressBar.setVisibility(View.VISIBLE);
-        cropView.setEnabled(false);
-        new Thread(new Runnable() {
+    private void cancelCrop() {
+        if (cropTask != null) {
+            cropTask.cancel();
+            cropTask = null;
+        }
+        progressBar.setVisibility(View.GONE);
+        cropView.setEnabled(true);
+    }
+
+    private void saveImageAndStartActivity(final byte[] image) {
+        cropTask = null;
+        executor.execute(new Runnable() {
             @Override
             public void run() {
-                imageClient.saveBitmap(bitmap);
+                imageClient.saveImage(image);
                 runOnUiThread(new Runnable() {
                     @Override
                     public void run() {
@@ -141,7 +170,7 @@ public class CropActivity extends AppCompatActivity {
                     }
                 });
             }
-        }).start();
+        });
     }
 
     private void loadAlbums() {
@@ -157,7 +186,7 @@ public class CropActivity extends AppCompatActivity {
                             if (!album.photos.isEmpty()) {
                                 if (adapter.getItemCount() == 0) {
                                     Photo photo = album.photos.get(0);
-                                    cropView.setUri(photo.uri);
+                                    cropView.setUri(photo.uri, photo.bitmap);
                                 }
                                 adapter.addItem(album);
                             }
@@ -0,0 +1,79 @@
+package com.takusemba.cropme;
+
+import android.os.Debug;
+
+import java.util.Arrays;
+
+/**
+ * Benchmark
+ *
+ * runs an operation repeatedly on the calling thread and measures its latency and java allocations.
+ * allocations are counted by the runtime for the calling thread only, and pixels of bitmaps which live
+ * in the native heap are not included.
+ *
+ * @author takusemba
+ * @since 17/10/2026
+ **/
+final class Benchmark {
+
+    interface Operation {
+
+        void run() throws Exception;
+    }
+
+    static final class Result {
+
+        final String name;
+        final int iterations;
+        final long minNanos;
+        final long medianNanos;
+        final long maxNanos;
+        final long allocationCount;
+        final long allocationBytes;
+
+        Result(String name, long[] nanos, long allocationCount, long allocationBytes) {
+            Arrays.sort(nanos);
+            this.name = name;
+            this.iterations = nanos.length;
+            this.minNanos = nanos[0];
+            this.medianNanos = nanos[nanos.length / 2];
+            this.maxNanos = nanos[nanos.length - 1];
+            this.allocationCount = allocationCount / nanos.length;
+            this.allocationBytes = allocationBytes / nanos.length;
+        }
+    }
+
+    private Benchmark() {
+    }
+
+    /**
+     * @param warmup     runs which are not measured
+     * @param iterations runs which are measured
+     * @return latency of each run and allocations per run
+     **/
+    @SuppressWarnings("deprecation")
+    static Result measure(String name, int warmup, int iterations, Operation operation) throws Exception {
+        if (iterations <= 0) {
+            throw new IllegalArgumentException("iterations must be greater than 0");
+        }
+        for (int i = 0; i < warmup; i++) {
+            operation.run();
+        }
+        System.gc();
+
+        long[] nanos = new long[iterations];
+        Debug.startAllocCounting();
+        Debug.resetThreadAllocCount();
+        Debug.resetThreadAllocSize();
+        try {
+            for (int i = 0; i < iterations; i++) {
+                long start = System.nanoTime();
+                operation.run();
+                nanos[i] = System.nanoTime() - start;
+            }
+            return new Result(name, nanos, Debug.getThreadAllocCount(), Debug.getThreadAllocSize());
+        } finally {
+            Debug.stopAllocCounting();
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.takusemba.cropme;
+
+import android.content.Context;
+import android.os.Build;
+import android.util.Log;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * BenchmarkReport
+ *
+ * collects results of {@link Benchmark} and writes them as json, so they can be compared release over release.
+ * the file is written to the external files dir of the test app, or to its files dir if there is no external one.
+ *
+ * @author takusemba
+ * @since 17/10/2026
+ **/
+final class BenchmarkReport {
+
+    private static final String TAG = "CropMeBenchmark";
+    private static final String FILE_NAME = "cropme-benchmark.json";
+
+    private final JSONArray results = new JSONArray();
+    private final JSONArray skipped = new JSONArray();
+
+    /**
+     * @param params what the benchmark ran with, such as the size of the image
+     **/
+    synchronized void add(Benchmark.Result result, JSONObject params) throws JSONException {
+        results.put(new JSONObject()
+                .put("name", result.name)
+                .put("params", params)
+                .put("iterations", result.iterations)
+                .put("min_ns", result.minNanos)
+                .put("median_ns", result.medianNanos)
+                .put("max_ns", result.maxNanos)
+                .put("java_alloc_count", result.allocationCount)
+                .put("java_alloc_bytes", result.allocationBytes));
+        Log.i(TAG, result.name + " " + params + " median " + result.medianNanos + "ns");
+    }
+
+    synchronized void skip(String name, JSONObject params, String reason) throws JSONException {
+        skipped.put(new JSONObject()
+                .put("name", name)
+                .put("params", params)
+                .put("reason", reason));
+        Log.i(TAG, name + " " + params + " skipped: " + reason);
+    }
+
+    synchronized File write(Context context) throws JSONException, IOException {
+        JSONObject report = new JSONObject()
+                .put("library_version", BuildConfig.VERSION_NAME)
+                .put("device", Build.MANUFACTURER + " " + Build.MODEL)
+                .put("sdk", Build.VERSION.SDK_INT)
+                .put("timestamp", System.currentTimeMillis())
+                .put("results", results)
+                .put("skipped", skipped);
+
+        File dir = context.getExternalFilesDir(null);
+        if (dir == null) {
+            dir = context.getFilesDir();
+        }
+        File file = new File(dir, FILE_NAME);
+        OutputStream stream = new FileOutputStream(file);
+        try {
+            stream.write(report.toString(2).getBytes("UTF-8"));
+        } finally {
+            stream.close();
+        }
+        Log.i(TAG, "written to " + file.getAbsolutePath());
+        return file;
+    }
+}
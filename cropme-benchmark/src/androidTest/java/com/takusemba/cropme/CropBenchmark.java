@@ -0,0 +1,259 @@
+package com.takusemba.cropme;
+
+import android.app.Instrumentation;
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Canvas;
+import android.graphics.RectF;
+import android.net.Uri;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+import android.util.DisplayMetrics;
+import android.view.View;
+
+import com.takusemba.cropme.engine.CropEngine;
+import com.takusemba.cropme.engine.FloatRect;
+
+import org.json.JSONObject;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.List;
+
+/**
+ * CropBenchmark
+ *
+ * latency and allocations of decoding, cropping, drawing the overlay and moving the image.
+ * results are written to cropme-benchmark.json when every benchmark is done.
+ *
+ * @author takusemba
+ * @since 17/10/2026
+ **/
+@RunWith(AndroidJUnit4.class)
+public class CropBenchmark {
+
+    private static final float RESULT_PERCENT = 0.8f;
+    private static final int MAX_SCALE = 2;
+    private static final int MOVES_PER_GESTURE = 120;
+
+    private static final BenchmarkReport report = new BenchmarkReport();
+    private static List<SyntheticCorpus.Image> corpus;
+
+    private static int viewWidth;
+    private static int viewHeight;
+    private static RectF restriction;
+
+    @BeforeClass
+    public static void setUp() throws Exception {
+        Context context = InstrumentationRegistry.getTargetContext();
+        DisplayMetrics metrics = context.getResources().getDisplayMetrics();
+        viewWidth = metrics.widthPixels;
+        viewHeight = metrics.heightPixels;
+        float resultWidth = viewWidth * RESULT_PERCENT;
+        float resultHeight = viewHeight * RESULT_PERCENT;
+        restriction = new RectF((viewWidth - resultWidth) / 2, (viewHeight - resultHeight) / 2,
+                (viewWidth + resultWidth) / 2, (viewHeight + resultHeight) / 2);
+        corpus = SyntheticCorpus.generate(context, report);
+    }
+
+    @AfterClass
+    public static void tearDown() throws Exception {
+        report.write(InstrumentationRegistry.getTargetContext());
+    }
+
+    /**
+     * what {@link CropView#setUri(Uri)} does to read and decode the source
+     **/
+    @Test
+    public void decodeForDisplay() throws Exception {
+        final Context context = InstrumentationRegistry.getTargetContext();
+        final DecodePolicy policy = DecodePolicy.forDevice(context);
+        for (final SyntheticCorpus.Image image : corpus) {
+            final Uri uri = Uri.fromFile(image.file);
+            try {
+                Benchmark.Result result = Benchmark.measure("decode_for_display", 1, iterations(image), new Benchmark.Operation() {
+                    @Override
+                    public void run() {
+                        BitmapFactory.Options bounds = BitmapLoader.decodeBounds(context.getContentResolver(), uri);
+                        int orientation = ExifOrientation.read(context.getContentResolver(), uri);
+                        boolean swapped = CropEngine.swapsDimensions(orientation);
+                        Bitmap.Config config = policy.configFor(bounds.outMimeType);
+                        int inSampleSize = policy.sampleSizeFor(bounds.outWidth, bounds.outHeight,
+                                displaySampleSize(swapped ? bounds.outHeight : bounds.outWidth,
+                                        swapped ? bounds.outWidth : bounds.outHeight), config);
+                        Bitmap bitmap = BitmapLoader.decodeSampled(context.getContentResolver(), uri,
+                                bounds.outWidth, bounds.outHeight, inSampleSize, config, null);
+                        bitmap.recycle();
+                    }
+                });
+                report.add(result, image.toParams());
+            } catch (OutOfMemoryError e) {
+                report.skip("decode_for_display", image.toParams(), "out of memory");
+            }
+        }
+    }
+
+    /**
+     * {@link CropView#crop(OnCropListener)} of the centered crop box in full resolution
+     **/
+    @Test
+    public void cropFromSource() throws Exception {
+        final Context context = InstrumentationRegistry.getTargetContext();
+        final CropRequest request = new CropRequest.Builder().build();
+        for (SyntheticCorpus.Image image : corpus) {
+            final CropGeometry geometry = new CropGeometry(Uri.fromFile(image.file), null, image.orientation,
+                    imageRect(image.orientedWidth(), image.orientedHeight()), 0, restriction);
+            try {
+                Benchmark.Result result = Benchmark.measure("crop_from_source", 1, iterations(image), new Benchmark.Operation() {
+                    @Override
+                    public void run() {
+                        Bitmap bitmap = Cropper.crop(context.getContentResolver(), geometry, request, null, null);
+                        bitmap.recycle();
+                    }
+                });
+                report.add(result, image.toParams());
+            } catch (OutOfMemoryError e) {
+                report.skip("crop_from_source", image.toParams(), "out of memory");
+            }
+        }
+    }
+
+    /**
+     * crop of the bitmap on display, which is used when the source can not be decoded by region
+     **/
+    @Test
+    public void cropFromDisplayedBitmap() throws Exception {
+        Context context = InstrumentationRegistry.getTargetContext();
+        for (final SyntheticCorpus.Image image : corpus) {
+            if (image.format != Bitmap.CompressFormat.PNG) {
+                continue;
+            }
+            final Bitmap displayed = BitmapLoader.decodeSampled(context.getContentResolver(), Uri.fromFile(image.file),
+                    image.width, image.height, displaySampleSize(image.width, image.height), Bitmap.Config.ARGB_8888, null);
+            final RectF imageRect = imageRect(image.orientedWidth(), image.orientedHeight());
+            Benchmark.Result result = Benchmark.measure("crop_from_displayed_bitmap", 3, 20, new Benchmark.Operation() {
+                @Override
+                public void run() {
+                    Cropper.cropBitmap(displayed, image.orientation, imageRect, restriction, null).recycle();
+                }
+            });
+            displayed.recycle();
+            report.add(result, image.toParams());
+        }
+    }
+
+    @Test
+    public void overlayDraw() throws Exception {
+        final Context context = InstrumentationRegistry.getTargetContext();
+        final Bitmap target = Bitmap.createBitmap(viewWidth, viewHeight, Bitmap.Config.ARGB_8888);
+        for (final boolean adjustable : new boolean[]{false, true}) {
+            Benchmark.Result result = runOnMainSync(new MainOperation() {
+                @Override
+                public Benchmark.Result run() throws Exception {
+                    final CropOverlayView overlay = new CropOverlayView(context);
+                    overlay.setUse_adjustable_crop_box(adjustable);
+                    overlay.measure(View.MeasureSpec.makeMeasureSpec(viewWidth, View.MeasureSpec.EXACTLY),
+                            View.MeasureSpec.makeMeasureSpec(viewHeight, View.MeasureSpec.EXACTLY));
+                    overlay.layout(0, 0, viewWidth, viewHeight);
+                    overlay.setAttrs(new RectF(restriction), 204, true);
+                    final Canvas canvas = new Canvas(target);
+                    return Benchmark.measure("overlay_draw", 10, 100, new Benchmark.Operation() {
+                        @Override
+                        public void run() {
+                            overlay.draw(canvas);
+                        }
+                    });
+                }
+            });
+            report.add(result, new JSONObject()
+                    .put("width", viewWidth)
+                    .put("height", viewHeight)
+                    .put("adjustable_crop_box", adjustable));
+        }
+        target.recycle();
+    }
+
+    /**
+     * the calls of one drag gesture: each move followed by settle, which checks the bounds and picks the target.
+     * frames which spring the image back run after the measured block, and are measured by GestureAllocationTest.
+     **/
+    @Test
+    public void animatorMoveSettleCalls() throws Exception {
+        Benchmark.Result result = runOnMainSync(new MainOperation() {
+            @Override
+            public Benchmark.Result run() throws Exception {
+                final ImageTransform transform = new ImageTransform();
+                RectF base = imageRect(4000, 3000);
+                transform.setBaseRect(base.left, base.top, base.right, base.bottom);
+                final TransformAnimator animator = new TransformAnimatorImpl(transform, restriction, MAX_SCALE);
+                return Benchmark.measure("animator_move_settle_calls", 10, 100, new Benchmark.Operation() {
+                    @Override
+                    public void run() {
+                        for (int i = 0; i < MOVES_PER_GESTURE; i++) {
+                            float delta = i < MOVES_PER_GESTURE / 2 ? 4 : -4;
+                            animator.move(delta, delta);
+                            animator.settle();
+                        }
+                    }
+                });
+            }
+        });
+        report.add(result, new JSONObject().put("moves", MOVES_PER_GESTURE));
+    }
+
+    private static int iterations(SyntheticCorpus.Image image) {
+        if (image.megapixels <= 2) {
+            return 10;
+        } else if (image.megapixels <= 12) {
+            return 5;
+        }
+        return 3;
+    }
+
+    /**
+     * rect of the image shown in the view without zoom, the same as CropImageView lays it out
+     **/
+    private static RectF imageRect(int sourceWidth, int sourceHeight) {
+        FloatRect out = new FloatRect();
+        CropEngine.fitBaseRect(sourceWidth, sourceHeight, viewWidth, viewHeight,
+                restriction.width(), restriction.height(), true, out);
+        return new RectF(out.left, out.top, out.right, out.bottom);
+    }
+
+    private static int displaySampleSize(int sourceWidth, int sourceHeight) {
+        RectF imageRect = imageRect(sourceWidth, sourceHeight);
+        return CropEngine.calculateInSampleSize(sourceWidth, sourceHeight,
+                (int) (imageRect.width() * MAX_SCALE), (int) (imageRect.height() * MAX_SCALE));
+    }
+
+    private interface MainOperation {
+
+        Benchmark.Result run() throws Exception;
+    }
+
+    /**
+     * views and animators have to run on the main thread
+     **/
+    private static Benchmark.Result runOnMainSync(final MainOperation operation) throws Exception {
+        final Benchmark.Result[] result = new Benchmark.Result[1];
+        final Exception[] error = new Exception[1];
+        Instrumentation instrumentation = InstrumentationRegistry.getInstrumentation();
+        instrumentation.runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    result[0] = operation.run();
+                } catch (Exception e) {
+                    error[0] = e;
+                }
+            }
+        });
+        if (error[0] != null) {
+            throw error[0];
+        }
+        return result[0];
+    }
+}
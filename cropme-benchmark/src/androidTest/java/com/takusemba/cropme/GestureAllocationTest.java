@@ -0,0 +1,271 @@
+package com.takusemba.cropme;
+
+import android.app.Instrumentation;
+import android.content.Context;
+import android.graphics.RectF;
+import android.os.Debug;
+import android.os.SystemClock;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+import android.view.InputDevice;
+import android.view.MotionEvent;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * GestureAllocationTest
+ *
+ * drags, pinches and flings allocate nothing on the main thread once they have run, until the image settles.
+ * events go through ActionDetector to the animator and the transform the same way CropView wires them.
+ * the main thread is left free between events, so moves are handed over by real frames, and the fling,
+ * the bounce back and the rescale are stepped by real frames until the animator is idle.
+ *
+ * @author takusemba
+ * @since 17/10/2026
+ **/
+@RunWith(AndroidJUnit4.class)
+public class GestureAllocationTest {
+
+    private static final int MAX_SCALE = 2;
+    private static final int ITERATIONS = 5;
+    private static final long FRAME_MILLIS = 16;
+    private static final long IDLE_TIMEOUT_MILLIS = 5000;
+
+    private Instrumentation instrumentation;
+    private TransformAnimator animator;
+    private ActionDetector detector;
+
+    private final Dispatcher dispatcher = new Dispatcher();
+    private final IdleCheck idleCheck = new IdleCheck();
+    private final AllocationCounter counter = new AllocationCounter();
+
+    @Before
+    public void setUp() {
+        instrumentation = InstrumentationRegistry.getInstrumentation();
+        final Context context = InstrumentationRegistry.getTargetContext();
+        // detectors and animators have to be made on the main thread
+        instrumentation.runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                ImageTransform transform = new ImageTransform();
+                transform.setBaseRect(0, 0, 1000, 750);
+                animator = new TransformAnimatorImpl(transform, new RectF(100, 75, 900, 675), MAX_SCALE);
+                detector = new ActionDetector(context, new ActionListener() {
+                    @Override
+                    public void onScaled(float scale, float focusX, float focusY) {
+                        animator.scale(scale, focusX, focusY);
+                    }
+
+                    @Override
+                    public void onScaleEnded() {
+                        animator.settle();
+                    }
+
+                    @Override
+                    public void onRotated(float degrees, float focusX, float focusY) {
+                    }
+
+                    @Override
+                    public void onRotateEnded() {
+                    }
+
+                    @Override
+                    public void onMoved(float dx, float dy) {
+                        animator.move(dx, dy);
+                    }
+
+                    @Override
+                    public void onFlinged(float velocityX, float velocityY) {
+                        animator.fling(velocityX, velocityY);
+                    }
+
+                    @Override
+                    public void onMoveEnded() {
+                        if (!animator.isFlinging()) {
+                            animator.settle();
+                        }
+                    }
+
+                    @Override
+                    public void onTouched(float x, float y) {
+                    }
+                });
+            }
+        });
+    }
+
+    @Test
+    public void gesturesAllocateNothing() throws Exception {
+        // the first run loads classes and fills the pools of the framework
+        runGestures();
+        instrumentation.runOnMainSync(counter.start);
+        try {
+            for (int i = 0; i < ITERATIONS; i++) {
+                runGestures();
+            }
+        } finally {
+            instrumentation.runOnMainSync(counter.stop);
+        }
+        assertEquals(0, counter.count);
+    }
+
+    private void runGestures() throws Exception {
+        drag();
+        waitForIdle();
+        pinch();
+        waitForIdle();
+        fling();
+        waitForIdle();
+    }
+
+    /**
+     * drag the image off of the crop box and hold it still before lifting, so it bounces back without flinging
+     **/
+    private void drag() throws Exception {
+        long downTime = SystemClock.uptimeMillis();
+        float x = 500;
+        float y = 375;
+        send(event(downTime, MotionEvent.ACTION_DOWN, x, y));
+        for (int i = 0; i < 40; i++) {
+            x += 8;
+            y += 8;
+            send(event(downTime, MotionEvent.ACTION_MOVE, x, y));
+        }
+        Thread.sleep(10 * FRAME_MILLIS);
+        send(event(downTime, MotionEvent.ACTION_UP, x, y));
+    }
+
+    /**
+     * spread two fingers beyond the max scale, so the image scales back when they are lifted
+     **/
+    private void pinch() throws Exception {
+        long downTime = SystemClock.uptimeMillis();
+        float left = 200;
+        float right = 800;
+        float y = 375;
+        send(event(downTime, MotionEvent.ACTION_DOWN, left, y));
+        send(event(downTime, pointerAction(MotionEvent.ACTION_POINTER_DOWN, 1), left, y, right, y));
+        for (int i = 0; i < 40; i++) {
+            left -= 10;
+            right += 10;
+            send(event(downTime, MotionEvent.ACTION_MOVE, left, y, right, y));
+        }
+        send(event(downTime, pointerAction(MotionEvent.ACTION_POINTER_UP, 1), left, y, right, y));
+        send(event(downTime, MotionEvent.ACTION_UP, left, y));
+    }
+
+    /**
+     * swipe fast and lift, so the image flings off of the crop box and bounces back
+     **/
+    private void fling() throws Exception {
+        long downTime = SystemClock.uptimeMillis();
+        float x = 500;
+        float y = 375;
+        send(event(downTime, MotionEvent.ACTION_DOWN, x, y));
+        for (int i = 0; i < 6; i++) {
+            x -= 60;
+            send(event(downTime, MotionEvent.ACTION_MOVE, x, y));
+        }
+        send(event(downTime, MotionEvent.ACTION_UP, x, y));
+    }
+
+    /**
+     * hand event to the detector on the main thread, then leave the main thread free for a frame.
+     * events are made on this thread, so only handling them is counted.
+     **/
+    private void send(MotionEvent event) throws Exception {
+        dispatcher.event = event;
+        instrumentation.runOnMainSync(dispatcher);
+        event.recycle();
+        Thread.sleep(FRAME_MILLIS);
+    }
+
+    private void waitForIdle() throws Exception {
+        long timeout = SystemClock.uptimeMillis() + IDLE_TIMEOUT_MILLIS;
+        while (true) {
+            instrumentation.runOnMainSync(idleCheck);
+            if (idleCheck.idle) {
+                return;
+            }
+            if (SystemClock.uptimeMillis() > timeout) {
+                fail("animator did not settle in " + IDLE_TIMEOUT_MILLIS + "ms");
+            }
+            Thread.sleep(FRAME_MILLIS);
+        }
+    }
+
+    private static int pointerAction(int action, int pointerIndex) {
+        return action | (pointerIndex << MotionEvent.ACTION_POINTER_INDEX_SHIFT);
+    }
+
+    /**
+     * @param coordinates x and y of each finger
+     **/
+    private static MotionEvent event(long downTime, int action, float... coordinates) {
+        int pointerCount = coordinates.length / 2;
+        MotionEvent.PointerProperties[] properties = new MotionEvent.PointerProperties[pointerCount];
+        MotionEvent.PointerCoords[] coords = new MotionEvent.PointerCoords[pointerCount];
+        for (int i = 0; i < pointerCount; i++) {
+            properties[i] = new MotionEvent.PointerProperties();
+            properties[i].id = i;
+            properties[i].toolType = MotionEvent.TOOL_TYPE_FINGER;
+            coords[i] = new MotionEvent.PointerCoords();
+            coords[i].x = coordinates[i * 2];
+            coords[i].y = coordinates[i * 2 + 1];
+            coords[i].pressure = 1;
+            coords[i].size = 1;
+        }
+        return MotionEvent.obtain(downTime, SystemClock.uptimeMillis(), action, pointerCount, properties, coords,
+                0, 0, 1, 1, 0, 0, InputDevice.SOURCE_TOUCHSCREEN, 0);
+    }
+
+    private final class Dispatcher implements Runnable {
+
+        private MotionEvent event;
+
+        @Override
+        public void run() {
+            detector.detectAction(event);
+        }
+    }
+
+    private final class IdleCheck implements Runnable {
+
+        private boolean idle;
+
+        @Override
+        public void run() {
+            idle = !animator.isAnimating();
+        }
+    }
+
+    /**
+     * counts allocations of the main thread. the runtime counts them for each thread.
+     **/
+    @SuppressWarnings("deprecation")
+    private static final class AllocationCounter {
+
+        private long count;
+
+        private final Runnable start = new Runnable() {
+            @Override
+            public void run() {
+                Debug.startAllocCounting();
+                Debug.resetThreadAllocCount();
+            }
+        };
+
+        private final Runnable stop = new Runnable() {
+            @Override
+            public void run() {
+                count = Debug.getThreadAllocCount();
+                Debug.stopAllocCounting();
+            }
+        };
+    }
+}
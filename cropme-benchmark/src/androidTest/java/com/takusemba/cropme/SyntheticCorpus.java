@@ -0,0 +1,197 @@
+package com.takusemba.cropme;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.LinearGradient;
+import android.graphics.Paint;
+import android.graphics.RadialGradient;
+import android.graphics.Shader;
+import android.support.media.ExifInterface;
+
+import com.takusemba.cropme.engine.CropEngine;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * SyntheticCorpus
+ *
+ * generates the images which benchmarks run on: jpeg and png at 2, 12, 48 and 108 megapixels in 4:3.
+ * jpegs are written once for every exif orientation. png has no exif orientation, so it is written only upright.
+ * images are cached in the cache dir, and sizes which can not be allocated on the device are reported as skipped.
+ *
+ * @author takusemba
+ * @since 17/10/2026
+ **/
+final class SyntheticCorpus {
+
+    static final int[] MEGAPIXELS = {2, 12, 48, 108};
+
+    private static final int JPEG_QUALITY = 90;
+    private static final int[] ORIENTATIONS = {
+            ExifInterface.ORIENTATION_NORMAL,
+            ExifInterface.ORIENTATION_FLIP_HORIZONTAL,
+            ExifInterface.ORIENTATION_ROTATE_180,
+            ExifInterface.ORIENTATION_FLIP_VERTICAL,
+            ExifInterface.ORIENTATION_TRANSPOSE,
+            ExifInterface.ORIENTATION_ROTATE_90,
+            ExifInterface.ORIENTATION_TRANSVERSE,
+            ExifInterface.ORIENTATION_ROTATE_270,
+    };
+
+    static final class Image {
+
+        final File file;
+        final Bitmap.CompressFormat format;
+        final int megapixels;
+        final int width;
+        final int height;
+        final int orientation;
+
+        Image(File file, Bitmap.CompressFormat format, int megapixels, int width, int height, int orientation) {
+            this.file = file;
+            this.format = format;
+            this.megapixels = megapixels;
+            this.width = width;
+            this.height = height;
+            this.orientation = orientation;
+        }
+
+        int orientedWidth() {
+            return CropEngine.swapsDimensions(orientation) ? height : width;
+        }
+
+        int orientedHeight() {
+            return CropEngine.swapsDimensions(orientation) ? width : height;
+        }
+
+        JSONObject toParams() throws JSONException {
+            return new JSONObject()
+                    .put("format", format.name())
+                    .put("megapixels", megapixels)
+                    .put("width", width)
+                    .put("height", height)
+                    .put("orientation", orientation);
+        }
+    }
+
+    private SyntheticCorpus() {
+    }
+
+    static List<Image> generate(Context context, BenchmarkReport report) throws IOException, JSONException {
+        File dir = new File(context.getCacheDir(), "corpus");
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("can not create " + dir);
+        }
+        List<Image> images = new ArrayList<>();
+        for (int megapixels : MEGAPIXELS) {
+            int width = (int) Math.sqrt(megapixels * 1000000 * 4 / 3.0);
+            int height = width * 3 / 4;
+            File jpeg = new File(dir, megapixels + "mp.jpg");
+            File png = new File(dir, megapixels + "mp.png");
+            if (!jpeg.exists() || !png.exists()) {
+                try {
+                    write(width, height, jpeg, png);
+                } catch (OutOfMemoryError e) {
+                    //noinspection ResultOfMethodCallIgnored
+                    jpeg.delete();
+                    //noinspection ResultOfMethodCallIgnored
+                    png.delete();
+                    report.skip("corpus", new JSONObject().put("megapixels", megapixels), "image does not fit in memory");
+                    continue;
+                }
+            }
+            images.add(new Image(png, Bitmap.CompressFormat.PNG, megapixels, width, height, ExifInterface.ORIENTATION_NORMAL));
+            for (int orientation : ORIENTATIONS) {
+                File file = jpeg;
+                if (orientation != ExifInterface.ORIENTATION_NORMAL) {
+                    file = new File(dir, megapixels + "mp-" + orientation + ".jpg");
+                    if (!file.exists()) {
+                        copy(jpeg, file);
+                        ExifInterface exif = new ExifInterface(file.getAbsolutePath());
+                        exif.setAttribute(ExifInterface.TAG_ORIENTATION, String.valueOf(orientation));
+                        exif.saveAttributes();
+                    }
+                }
+                images.add(new Image(file, Bitmap.CompressFormat.JPEG, megapixels, width, height, orientation));
+            }
+        }
+        return images;
+    }
+
+    private static void write(int width, int height, File jpeg, File png) throws IOException {
+        Bitmap bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+        try {
+            draw(new Canvas(bitmap), width, height);
+            compress(bitmap, Bitmap.CompressFormat.JPEG, JPEG_QUALITY, jpeg);
+            compress(bitmap, Bitmap.CompressFormat.PNG, 100, png);
+        } finally {
+            bitmap.recycle();
+        }
+    }
+
+    /**
+     * gradients and shapes, so encoders and decoders do work close to a photo rather than a flat color
+     **/
+    private static void draw(Canvas canvas, int width, int height) {
+        Paint paint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        paint.setShader(new LinearGradient(0, 0, width, height,
+                new int[]{Color.RED, Color.YELLOW, Color.GREEN, Color.CYAN, Color.BLUE}, null, Shader.TileMode.CLAMP));
+        canvas.drawRect(0, 0, width, height, paint);
+
+        int cells = 16;
+        float cellWidth = width / (float) cells;
+        float cellHeight = height / (float) cells;
+        for (int y = 0; y < cells; y++) {
+            for (int x = 0; x < cells; x++) {
+                float centerX = (x + 0.5f) * cellWidth;
+                float centerY = (y + 0.5f) * cellHeight;
+                float radius = Math.min(cellWidth, cellHeight) / 2;
+                paint.setShader(new RadialGradient(centerX, centerY, radius,
+                        Color.argb(255, x * 16, y * 16, 255 - x * 16), Color.TRANSPARENT, Shader.TileMode.CLAMP));
+                canvas.drawCircle(centerX, centerY, radius, paint);
+            }
+        }
+    }
+
+    private static void compress(Bitmap bitmap, Bitmap.CompressFormat format, int quality, File file) throws IOException {
+        OutputStream stream = new BufferedOutputStream(new FileOutputStream(file));
+        try {
+            if (!bitmap.compress(format, quality, stream)) {
+                throw new IOException("can not write " + file);
+            }
+        } finally {
+            stream.close();
+        }
+    }
+
+    private static void copy(File from, File to) throws IOException {
+        InputStream input = new FileInputStream(from);
+        try {
+            OutputStream output = new FileOutputStream(to);
+            try {
+                byte[] buffer = new byte[64 * 1024];
+                int read;
+                while ((read = input.read(buffer)) != -1) {
+                    output.write(buffer, 0, read);
+                }
+            } finally {
+                output.close();
+            }
+        } finally {
+            input.close();
+        }
+    }
+}
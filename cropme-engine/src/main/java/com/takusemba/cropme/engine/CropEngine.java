@@ -0,0 +1,486 @@
+package com.takusemba.cropme.engine;
+
+/**
+ * CropEngine
+ *
+ * crop geometry and pixel operations of CropMe without android. the image is laid out in a base rect,
+ * which is the source fitted into the viewport and scaled up to cover the restriction. then it is scaled
+ * around its center and translated. CropView uses the same functions, so a crop computed here on a plain
+ * JVM matches the one on a device.
+ *
+ * @author takusemba
+ * @since 17/10/2026
+ **/
+public final class CropEngine {
+
+    public static final int CORNER_TOP_LEFT = 0;
+    public static final int CORNER_TOP_RIGHT = 1;
+    public static final int CORNER_BOTTOM_LEFT = 2;
+    public static final int CORNER_BOTTOM_RIGHT = 3;
+
+    /**
+     * exif orientations, which tell how the stored pixels have to be turned to be shown upright
+     **/
+    public static final int ORIENTATION_NORMAL = 1;
+    public static final int ORIENTATION_FLIP_HORIZONTAL = 2;
+    public static final int ORIENTATION_ROTATE_180 = 3;
+    public static final int ORIENTATION_FLIP_VERTICAL = 4;
+    public static final int ORIENTATION_TRANSPOSE = 5;
+    public static final int ORIENTATION_ROTATE_90 = 6;
+    public static final int ORIENTATION_TRANSVERSE = 7;
+    public static final int ORIENTATION_ROTATE_270 = 8;
+
+    private CropEngine() {
+    }
+
+    /**
+     * rect where the image is laid out when it is neither scaled nor translated.
+     * the content is fitted into the viewport without being enlarged, then scaled up to cover the restriction,
+     * and centered in the viewport.
+     *
+     * @param restrictionWidth  width of the restriction, or 0 not to cover it
+     * @param restrictionHeight height of the restriction, or 0 not to cover it
+     * @param keepAspectRatio   false to fit width and height separately
+     **/
+    public static void fitBaseRect(float contentWidth, float contentHeight, float viewportWidth, float viewportHeight,
+                                   float restrictionWidth, float restrictionHeight, boolean keepAspectRatio,
+                                   FloatRect out) {
+        if (contentWidth <= 0 || contentHeight <= 0) {
+            out.set(0, 0, 0, 0);
+            return;
+        }
+        float width;
+        float height;
+        if (keepAspectRatio) {
+            float fitScale = Math.min(1, Math.min(viewportWidth / contentWidth, viewportHeight / contentHeight));
+            width = contentWidth * fitScale;
+            height = contentHeight * fitScale;
+        } else {
+            width = Math.min(contentWidth, viewportWidth);
+            height = Math.min(contentHeight, viewportHeight);
+        }
+        float widthScale = restrictionWidth > 0 ? restrictionWidth / width : 1;
+        float heightScale = restrictionHeight > 0 ? restrictionHeight / height : 1;
+        float scale = Math.max(widthScale, heightScale);
+        width *= scale;
+        height *= scale;
+        out.set((viewportWidth - width) / 2, (viewportHeight - height) / 2,
+                (viewportWidth + width) / 2, (viewportHeight + height) / 2);
+    }
+
+    /**
+     * rect where the image is shown after baseRect is scaled around its center and translated
+     **/
+    public static void transformedRect(FloatRect baseRect, float scale, float translationX, float translationY,
+                                       FloatRect out) {
+        float halfWidth = baseRect.width() * scale / 2;
+        float halfHeight = baseRect.height() * scale / 2;
+        float centerX = baseRect.centerX() + translationX;
+        float centerY = baseRect.centerY() + translationY;
+        out.set(centerX - halfWidth, centerY - halfHeight, centerX + halfWidth, centerY + halfHeight);
+    }
+
+    /**
+     * scale which the image settles to after a gesture
+     **/
+    public static float clampScale(float scale, float maxScale) {
+        return Math.max(1, Math.min(maxScale, scale));
+    }
+
+    /**
+     * translation on one axis which the image settles to. if the image, at settledScale, leaves a gap
+     * at either end of the restriction, the image edge is moved to that end. otherwise translation is returned.
+     *
+     * @param baseCenter center of the base rect on this axis
+     * @param baseSize   size of the base rect on this axis
+     **/
+    public static float settleTranslation(float translation, float baseCenter, float baseSize, float settledScale,
+                                          float restrictionStart, float restrictionEnd) {
+        float halfSize = baseSize * settledScale / 2;
+        float center = baseCenter + translation;
+        if (restrictionStart < center - halfSize) {
+            return maxTranslation(baseCenter, baseSize, settledScale, restrictionStart);
+        } else if (center + halfSize < restrictionEnd) {
+            return minTranslation(baseCenter, baseSize, settledScale, restrictionEnd);
+        }
+        return translation;
+    }
+
+    /**
+     * smallest translation on one axis at which the image still covers the end of the restriction
+     **/
+    public static float minTranslation(float baseCenter, float baseSize, float scale, float restrictionEnd) {
+        return restrictionEnd - baseSize * scale / 2 - baseCenter;
+    }
+
+    /**
+     * largest translation on one axis at which the image still covers the start of the restriction
+     **/
+    public static float maxTranslation(float baseCenter, float baseSize, float scale, float restrictionStart) {
+        return restrictionStart + baseSize * scale / 2 - baseCenter;
+    }
+
+    /**
+     * the smallest scale at which the base rect, rotated by rotation degrees around its center,
+     * covers a restriction of restrictionWidth x restrictionHeight. it is never greater than 1 without rotation.
+     **/
+    public static float coverScale(float baseWidth, float baseHeight, float rotation,
+                                   float restrictionWidth, float restrictionHeight) {
+        double radians = Math.toRadians(rotation);
+        float cos = (float) Math.abs(Math.cos(radians));
+        float sin = (float) Math.abs(Math.sin(radians));
+        // bounds of the restriction seen from the rotated image
+        float width = restrictionWidth * cos + restrictionHeight * sin;
+        float height = restrictionWidth * sin + restrictionHeight * cos;
+        return Math.max(width / baseWidth, height / baseHeight);
+    }
+
+    /**
+     * scale which the image rotated by rotation degrees settles to after a gesture.
+     * it is at least 1 and at least what the image needs to cover the restriction.
+     **/
+    public static float clampScale(float scale, float maxScale, FloatRect baseRect, float rotation,
+                                   FloatRect restriction) {
+        float minScale = Math.max(1, coverScale(baseRect.width(), baseRect.height(), rotation,
+                restriction.width(), restriction.height()));
+        return Math.max(minScale, Math.min(Math.max(maxScale, minScale), scale));
+    }
+
+    /**
+     * translation which the image, rotated by rotation degrees around its center, settles to.
+     * if the image at settledScale leaves a gap in the restriction, it is moved by the least distance
+     * which closes the gap. the result is written to out as {translationX, translationY}.
+     **/
+    public static void settleTranslation(FloatRect baseRect, float settledScale, float rotation,
+                                         float translationX, float translationY, FloatRect restriction,
+                                         float[] out) {
+        TranslationBounds bounds = new TranslationBounds();
+        bounds.set(baseRect, settledScale, rotation, restriction);
+        bounds.settle(translationX, translationY, out);
+    }
+
+    /**
+     * square of size in the given corner of cropRect, where a touch starts resizing the crop box
+     *
+     * @param corner one of CORNER_TOP_LEFT, CORNER_TOP_RIGHT, CORNER_BOTTOM_LEFT and CORNER_BOTTOM_RIGHT
+     **/
+    public static void cornerRect(FloatRect cropRect, float size, int corner, FloatRect out) {
+        switch (corner) {
+            case CORNER_TOP_LEFT:
+                out.set(cropRect.left, cropRect.top, cropRect.left + size, cropRect.top + size);
+                break;
+            case CORNER_TOP_RIGHT:
+                out.set(cropRect.right - size, cropRect.top, cropRect.right, cropRect.top + size);
+                break;
+            case CORNER_BOTTOM_LEFT:
+                out.set(cropRect.left, cropRect.bottom - size, cropRect.left + size, cropRect.bottom);
+                break;
+            case CORNER_BOTTOM_RIGHT:
+                out.set(cropRect.right - size, cropRect.bottom - size, cropRect.right, cropRect.bottom);
+                break;
+            default:
+                throw new IllegalArgumentException("unknown corner: " + corner);
+        }
+    }
+
+    /**
+     * map cropRect on the displayed image back to source pixel coordinates.
+     * the result is clamped to the source bounds.
+     **/
+    public static void toSourceRect(int sourceWidth, int sourceHeight, FloatRect imageRect, FloatRect cropRect,
+                                    IntRect out) {
+        float scaleX = sourceWidth / imageRect.width();
+        float scaleY = sourceHeight / imageRect.height();
+        int left = Math.round((cropRect.left - imageRect.left) * scaleX);
+        int top = Math.round((cropRect.top - imageRect.top) * scaleY);
+        int right = Math.round((cropRect.right - imageRect.left) * scaleX);
+        int bottom = Math.round((cropRect.bottom - imageRect.top) * scaleY);
+        out.set(Math.max(left, 0), Math.max(top, 0), Math.min(right, sourceWidth), Math.min(bottom, sourceHeight));
+    }
+
+    /**
+     * same as {@link #toSourceRect(int, int, FloatRect, FloatRect, IntRect)} for an image which is rotated
+     * by rotation degrees around the center of imageRect. the result is the bounds of the rotated cropRect.
+     **/
+    public static void toSourceRect(int sourceWidth, int sourceHeight, FloatRect imageRect, FloatRect cropRect,
+                                    float rotation, IntRect out) {
+        if (rotation == 0) {
+            toSourceRect(sourceWidth, sourceHeight, imageRect, cropRect, out);
+            return;
+        }
+        // turn corners of cropRect back around the image center, then map them to the source
+        double radians = Math.toRadians(-rotation);
+        float cos = (float) Math.cos(radians);
+        float sin = (float) Math.sin(radians);
+        float centerX = imageRect.centerX();
+        float centerY = imageRect.centerY();
+        float scaleX = sourceWidth / imageRect.width();
+        float scaleY = sourceHeight / imageRect.height();
+        float left = Float.MAX_VALUE;
+        float top = Float.MAX_VALUE;
+        float right = -Float.MAX_VALUE;
+        float bottom = -Float.MAX_VALUE;
+        for (int i = 0; i < 4; i++) {
+            float x = (i % 2 == 0 ? cropRect.left : cropRect.right) - centerX;
+            float y = (i < 2 ? cropRect.top : cropRect.bottom) - centerY;
+            float sourceX = (centerX + x * cos - y * sin - imageRect.left) * scaleX;
+            float sourceY = (centerY + x * sin + y * cos - imageRect.top) * scaleY;
+            left = Math.min(left, sourceX);
+            top = Math.min(top, sourceY);
+            right = Math.max(right, sourceX);
+            bottom = Math.max(bottom, sourceY);
+        }
+        out.set(Math.max((int) Math.floor(left), 0), Math.max((int) Math.floor(top), 0),
+                Math.min((int) Math.ceil(right), sourceWidth), Math.min((int) Math.ceil(bottom), sourceHeight));
+    }
+
+    /**
+     * part of the source which is under restriction for the given viewport and transform.
+     * this is what CropView crops from the source.
+     **/
+    public static void sourceCropRect(int sourceWidth, int sourceHeight, float viewportWidth, float viewportHeight,
+                                      FloatRect restriction, float scale, float translationX, float translationY,
+                                      IntRect out) {
+        FloatRect imageRect = new FloatRect();
+        fitBaseRect(sourceWidth, sourceHeight, viewportWidth, viewportHeight,
+                restriction.width(), restriction.height(), true, imageRect);
+        if (imageRect.isEmpty()) {
+            out.set(0, 0, 0, 0);
+            return;
+        }
+        transformedRect(imageRect, scale, translationX, translationY, imageRect);
+        toSourceRect(sourceWidth, sourceHeight, imageRect, restriction, out);
+    }
+
+    /**
+     * same as {@link #sourceCropRect(int, int, float, float, FloatRect, float, float, float, IntRect)}
+     * for a source which is shown turned by orientation and rotated by rotation degrees. the result is
+     * in stored pixel coordinates, which is what a region decoder reads.
+     *
+     * @param sourceWidth  width of the stored pixels
+     * @param sourceHeight height of the stored pixels
+     **/
+    public static void sourceCropRect(int orientation, int sourceWidth, int sourceHeight,
+                                      float viewportWidth, float viewportHeight, FloatRect restriction,
+                                      float scale, float rotation, float translationX, float translationY,
+                                      IntRect out) {
+        int orientedWidth = swapsDimensions(orientation) ? sourceHeight : sourceWidth;
+        int orientedHeight = swapsDimensions(orientation) ? sourceWidth : sourceHeight;
+        FloatRect imageRect = new FloatRect();
+        fitBaseRect(orientedWidth, orientedHeight, viewportWidth, viewportHeight,
+                restriction.width(), restriction.height(), true, imageRect);
+        if (imageRect.isEmpty()) {
+            out.set(0, 0, 0, 0);
+            return;
+        }
+        transformedRect(imageRect, scale, translationX, translationY, imageRect);
+        toSourceRect(orientedWidth, orientedHeight, imageRect, restriction, rotation, out);
+        toStoredRect(orientation, sourceWidth, sourceHeight, out, out);
+    }
+
+    /**
+     * true if width and height of the source are swapped when it is shown upright
+     **/
+    public static boolean swapsDimensions(int orientation) {
+        return orientation == ORIENTATION_TRANSPOSE || orientation == ORIENTATION_ROTATE_90
+                || orientation == ORIENTATION_TRANSVERSE || orientation == ORIENTATION_ROTATE_270;
+    }
+
+    /**
+     * map a rect of the upright image back to the stored pixels. orientations out of 1 to 8 are treated as normal.
+     *
+     * @param storedWidth  width of the stored pixels
+     * @param storedHeight height of the stored pixels
+     * @param oriented     rect in the upright image. can be the same instance as out
+     **/
+    public static void toStoredRect(int orientation, int storedWidth, int storedHeight, IntRect oriented, IntRect out) {
+        int left = oriented.left;
+        int top = oriented.top;
+        int right = oriented.right;
+        int bottom = oriented.bottom;
+        switch (orientation) {
+            case ORIENTATION_FLIP_HORIZONTAL:
+                out.set(storedWidth - right, top, storedWidth - left, bottom);
+                break;
+            case ORIENTATION_ROTATE_180:
+                out.set(storedWidth - right, storedHeight - bottom, storedWidth - left, storedHeight - top);
+                break;
+            case ORIENTATION_FLIP_VERTICAL:
+                out.set(left, storedHeight - bottom, right, storedHeight - top);
+                break;
+            case ORIENTATION_TRANSPOSE:
+                out.set(top, left, bottom, right);
+                break;
+            case ORIENTATION_ROTATE_90:
+                out.set(top, storedHeight - right, bottom, storedHeight - left);
+                break;
+            case ORIENTATION_TRANSVERSE:
+                out.set(storedWidth - bottom, storedHeight - right, storedWidth - top, storedHeight - left);
+                break;
+            case ORIENTATION_ROTATE_270:
+                out.set(storedWidth - bottom, left, storedWidth - top, right);
+                break;
+            default:
+                out.set(left, top, right, bottom);
+                break;
+        }
+    }
+
+    /**
+     * the largest power of 2 which keeps the decoded image at least as big as the required size
+     **/
+    public static int calculateInSampleSize(int sourceWidth, int sourceHeight, int reqWidth, int reqHeight) {
+        int inSampleSize = 1;
+        while (sourceWidth / (inSampleSize * 2) >= reqWidth && sourceHeight / (inSampleSize * 2) >= reqHeight) {
+            inSampleSize *= 2;
+        }
+        return inSampleSize;
+    }
+
+    /**
+     * copy region of src to dst without scaling
+     *
+     * @param src      pixels of the source, row by row
+     * @param srcWidth width of the source
+     * @param dst      pixels of the result, which must hold region.width() * region.height() pixels
+     **/
+    public static void cropPixels(int[] src, int srcWidth, IntRect region, int[] dst) {
+        checkRegion(src, srcWidth, region);
+        int width = region.width();
+        if (dst.length < width * region.height()) {
+            throw new IllegalArgumentException("dst is smaller than region");
+        }
+        for (int y = 0; y < region.height(); y++) {
+            System.arraycopy(src, (region.top + y) * srcWidth + region.left, dst, y * width, width);
+        }
+    }
+
+    /**
+     * scale region of src to dstWidth x dstHeight with bilinear filtering of each ARGB channel
+     *
+     * @param src      pixels of the source, row by row
+     * @param srcWidth width of the source
+     * @param dst      pixels of the result, which must hold dstWidth * dstHeight pixels
+     **/
+    public static void scalePixels(int[] src, int srcWidth, IntRect region, int[] dst, int dstWidth, int dstHeight) {
+        if (dstWidth == region.width() && dstHeight == region.height()) {
+            cropPixels(src, srcWidth, region, dst);
+            return;
+        }
+        scalePixels(src, srcWidth, region, dst, dstWidth, dstHeight, 0, dstHeight);
+    }
+
+    /**
+     * same as {@link #scalePixels(int[], int, IntRect, int[], int, int)} but only rows from fromRow to toRow of dst
+     * are written, so a large scale can be split into bands which run on different threads
+     **/
+    public static void scalePixels(int[] src, int srcWidth, IntRect region, int[] dst, int dstWidth, int dstHeight,
+                                   int fromRow, int toRow) {
+        checkRegion(src, srcWidth, region);
+        if (dstWidth <= 0 || dstHeight <= 0 || dst.length < dstWidth * dstHeight) {
+            throw new IllegalArgumentException("dst must hold dstWidth * dstHeight pixels");
+        }
+        if (fromRow < 0 || toRow < fromRow || dstHeight < toRow) {
+            throw new IllegalArgumentException("rows must be inside of dst");
+        }
+
+        // columns are the same for every row, so sample positions are computed once
+        int[] x0 = new int[dstWidth];
+        int[] x1 = new int[dstWidth];
+        int[] fx = new int[dstWidth];
+        float stepX = region.width() / (float) dstWidth;
+        for (int x = 0; x < dstWidth; x++) {
+            float sx = Math.max(0, (x + 0.5f) * stepX - 0.5f);
+            int ix = Math.min((int) sx, region.width() - 1);
+            x0[x] = region.left + ix;
+            x1[x] = region.left + Math.min(ix + 1, region.width() - 1);
+            fx[x] = (int) ((sx - ix) * 256);
+        }
+
+        float stepY = region.height() / (float) dstHeight;
+        for (int y = fromRow; y < toRow; y++) {
+            float sy = Math.max(0, (y + 0.5f) * stepY - 0.5f);
+            int iy = Math.min((int) sy, region.height() - 1);
+            int row0 = (region.top + iy) * srcWidth;
+            int row1 = (region.top + Math.min(iy + 1, region.height() - 1)) * srcWidth;
+            int fy = (int) ((sy - iy) * 256);
+            int offset = y * dstWidth;
+            for (int x = 0; x < dstWidth; x++) {
+                int top = lerp(src[row0 + x0[x]], src[row0 + x1[x]], fx[x]);
+                int bottom = lerp(src[row1 + x0[x]], src[row1 + x1[x]], fx[x]);
+                dst[offset + x] = lerp(top, bottom, fy);
+            }
+        }
+    }
+
+    /**
+     * rotate src clockwise by degrees. dst is srcHeight pixels wide when degrees is 90 or 270.
+     *
+     * @param src     pixels of the source, row by row
+     * @param degrees one of 0, 90, 180 and 270
+     * @param dst     pixels of the result, which must hold as many pixels as src
+     **/
+    public static void rotatePixels(int[] src, int srcWidth, int srcHeight, int degrees, int[] dst) {
+        if (srcWidth <= 0 || srcHeight <= 0 || src.length < srcWidth * srcHeight) {
+            throw new IllegalArgumentException("src must hold srcWidth * srcHeight pixels");
+        }
+        if (dst.length < srcWidth * srcHeight) {
+            throw new IllegalArgumentException("dst is smaller than src");
+        }
+        switch (degrees) {
+            case 0:
+                System.arraycopy(src, 0, dst, 0, srcWidth * srcHeight);
+                break;
+            case 90:
+                // source row y becomes destination column srcHeight - 1 - y
+                for (int y = 0; y < srcHeight; y++) {
+                    int row = y * srcWidth;
+                    int column = srcHeight - 1 - y;
+                    for (int x = 0; x < srcWidth; x++) {
+                        dst[x * srcHeight + column] = src[row + x];
+                    }
+                }
+                break;
+            case 180:
+                int last = srcWidth * srcHeight - 1;
+                for (int i = 0; i <= last; i++) {
+                    dst[last - i] = src[i];
+                }
+                break;
+            case 270:
+                // source row y becomes destination column y, read from the bottom
+                for (int y = 0; y < srcHeight; y++) {
+                    int row = y * srcWidth;
+                    for (int x = 0; x < srcWidth; x++) {
+                        dst[(srcWidth - 1 - x) * srcHeight + y] = src[row + x];
+                    }
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("degrees must be 0, 90, 180 or 270");
+        }
+    }
+
+    /**
+     * blend two ARGB pixels. fraction is from 0 to 256.
+     **/
+    private static int lerp(int from, int to, int fraction) {
+        if (fraction == 0 || from == to) {
+            return from;
+        }
+        int inverse = 256 - fraction;
+        int ag = (((from >>> 8) & 0x00FF00FF) * inverse + ((to >>> 8) & 0x00FF00FF) * fraction) & 0xFF00FF00;
+        int rb = (((from & 0x00FF00FF) * inverse + (to & 0x00FF00FF) * fraction) >>> 8) & 0x00FF00FF;
+        return ag | rb;
+    }
+
+    private static void checkRegion(int[] src, int srcWidth, IntRect region) {
+        if (srcWidth <= 0 || src.length % srcWidth != 0) {
+            throw new IllegalArgumentException("src must hold whole rows of srcWidth pixels");
+        }
+        int srcHeight = src.length / srcWidth;
+        if (region.isEmpty() || region.left < 0 || region.top < 0 || srcWidth < region.right || srcHeight < region.bottom) {
+            throw new IllegalArgumentException("region must be a non empty rect inside of src");
+        }
+    }
+}
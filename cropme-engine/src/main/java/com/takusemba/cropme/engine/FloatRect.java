@@ -0,0 +1,56 @@
+package com.takusemba.cropme.engine;
+
+/**
+ * FloatRect
+ *
+ * rect in float coordinates, the same as android.graphics.RectF but without android.
+ *
+ * @author takusemba
+ * @since 17/10/2026
+ **/
+public final class FloatRect {
+
+    public float left;
+    public float top;
+    public float right;
+    public float bottom;
+
+    public FloatRect() {
+    }
+
+    public FloatRect(float left, float top, float right, float bottom) {
+        set(left, top, right, bottom);
+    }
+
+    public void set(float left, float top, float right, float bottom) {
+        this.left = left;
+        this.top = top;
+        this.right = right;
+        this.bottom = bottom;
+    }
+
+    public float width() {
+        return right - left;
+    }
+
+    public float height() {
+        return bottom - top;
+    }
+
+    public float centerX() {
+        return (left + right) / 2;
+    }
+
+    public float centerY() {
+        return (top + bottom) / 2;
+    }
+
+    public boolean isEmpty() {
+        return left >= right || top >= bottom;
+    }
+
+    @Override
+    public String toString() {
+        return "FloatRect(" + left + ", " + top + ", " + right + ", " + bottom + ")";
+    }
+}
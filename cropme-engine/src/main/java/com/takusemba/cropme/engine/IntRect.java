@@ -0,0 +1,48 @@
+package com.takusemba.cropme.engine;
+
+/**
+ * IntRect
+ *
+ * rect in pixel coordinates, the same as android.graphics.Rect but without android.
+ *
+ * @author takusemba
+ * @since 17/10/2026
+ **/
+public final class IntRect {
+
+    public int left;
+    public int top;
+    public int right;
+    public int bottom;
+
+    public IntRect() {
+    }
+
+    public IntRect(int left, int top, int right, int bottom) {
+        set(left, top, right, bottom);
+    }
+
+    public void set(int left, int top, int right, int bottom) {
+        this.left = left;
+        this.top = top;
+        this.right = right;
+        this.bottom = bottom;
+    }
+
+    public int width() {
+        return right - left;
+    }
+
+    public int height() {
+        return bottom - top;
+    }
+
+    public boolean isEmpty() {
+        return left >= right || top >= bottom;
+    }
+
+    @Override
+    public String toString() {
+        return "IntRect(" + left + ", " + top + ", " + right + ", " + bottom + ")";
+    }
+}
@@ -0,0 +1,72 @@
+package com.takusemba.cropme.engine;
+
+/**
+ * TranslationBounds
+ *
+ * translations at which an image, scaled and rotated around its center, covers the restriction.
+ * they only depend on the scale, the rotation and the rects, so they are set once per scale change
+ * and then checked against as many translations as needed.
+ *
+ * @author takusemba
+ * @since 17/10/2026
+ **/
+public final class TranslationBounds {
+
+    private float baseCenterX;
+    private float baseCenterY;
+    private float restrictionCenterX;
+    private float restrictionCenterY;
+    private float cos = 1;
+    private float sin;
+    private float slackX;
+    private float slackY;
+
+    /**
+     * @param scale    scale the image is going to settle to
+     * @param rotation degrees the image is rotated around its center
+     **/
+    public void set(FloatRect baseRect, float scale, float rotation, FloatRect restriction) {
+        double radians = Math.toRadians(rotation);
+        cos = (float) Math.cos(radians);
+        sin = (float) Math.sin(radians);
+        float absCos = Math.abs(cos);
+        float absSin = Math.abs(sin);
+        baseCenterX = baseRect.centerX();
+        baseCenterY = baseRect.centerY();
+        restrictionCenterX = restriction.centerX();
+        restrictionCenterY = restriction.centerY();
+        // how far the restriction center can go from the image center, in the axes of the rotated image
+        slackX = Math.max(0, (baseRect.width() * scale
+                - restriction.width() * absCos - restriction.height() * absSin) / 2);
+        slackY = Math.max(0, (baseRect.height() * scale
+                - restriction.width() * absSin - restriction.height() * absCos) / 2);
+    }
+
+    public boolean contains(float translationX, float translationY) {
+        float dx = restrictionCenterX - (baseCenterX + translationX);
+        float dy = restrictionCenterY - (baseCenterY + translationY);
+        return Math.abs(dx * cos + dy * sin) <= slackX && Math.abs(-dx * sin + dy * cos) <= slackY;
+    }
+
+    /**
+     * translation nearest to (translationX, translationY) within the bounds.
+     * the result is written to out as {translationX, translationY}.
+     **/
+    public void settle(float translationX, float translationY, float[] out) {
+        float dx = restrictionCenterX - (baseCenterX + translationX);
+        float dy = restrictionCenterY - (baseCenterY + translationY);
+        float localX = dx * cos + dy * sin;
+        float localY = -dx * sin + dy * cos;
+        float settledX = Math.max(-slackX, Math.min(slackX, localX));
+        float settledY = Math.max(-slackY, Math.min(slackY, localY));
+        if (settledX == localX && settledY == localY) {
+            out[0] = translationX;
+            out[1] = translationY;
+            return;
+        }
+        dx = settledX * cos - settledY * sin;
+        dy = settledX * sin + settledY * cos;
+        out[0] = restrictionCenterX - dx - baseCenterX;
+        out[1] = restrictionCenterY - dy - baseCenterY;
+    }
+}
@@ -0,0 +1,385 @@
+package com.takusemba.cropme.engine;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * CropEngineTest
+ *
+ * @author takusemba
+ * @since 17/10/2026
+ **/
+public class CropEngineTest {
+
+    private static final float DELTA = 0.001f;
+
+    @Test
+    public void fitBaseRect_fitsContentIntoViewport() {
+        FloatRect out = new FloatRect();
+        CropEngine.fitBaseRect(2000, 1000, 1000, 1000, 0, 0, true, out);
+        assertRect(0, 250, 1000, 750, out);
+    }
+
+    @Test
+    public void fitBaseRect_doesNotEnlargeSmallContent() {
+        FloatRect out = new FloatRect();
+        CropEngine.fitBaseRect(100, 50, 1000, 1000, 0, 0, true, out);
+        assertRect(450, 475, 550, 525, out);
+    }
+
+    @Test
+    public void fitBaseRect_coversRestriction() {
+        FloatRect out = new FloatRect();
+        CropEngine.fitBaseRect(2000, 1000, 1000, 1000, 800, 800, true, out);
+        assertRect(-300, 100, 1300, 900, out);
+    }
+
+    @Test
+    public void fitBaseRect_fitsEachAxisWithoutAspectRatio() {
+        FloatRect out = new FloatRect();
+        CropEngine.fitBaseRect(2000, 500, 1000, 1000, 0, 0, false, out);
+        assertRect(0, 250, 1000, 750, out);
+    }
+
+    @Test
+    public void fitBaseRect_isEmptyWithoutContent() {
+        FloatRect out = new FloatRect(1, 2, 3, 4);
+        CropEngine.fitBaseRect(0, 1000, 1000, 1000, 800, 800, true, out);
+        assertTrue(out.isEmpty());
+    }
+
+    @Test
+    public void transformedRect_scalesAroundCenterThenTranslates() {
+        FloatRect out = new FloatRect();
+        CropEngine.transformedRect(new FloatRect(0, 0, 100, 50), 2, 10, -5, out);
+        assertRect(-40, -30, 160, 70, out);
+    }
+
+    @Test
+    public void clampScale_keepsScaleBetweenOneAndMax() {
+        assertEquals(1, CropEngine.clampScale(0.5f, 2), DELTA);
+        assertEquals(1.5f, CropEngine.clampScale(1.5f, 2), DELTA);
+        assertEquals(2, CropEngine.clampScale(3, 2), DELTA);
+    }
+
+    @Test
+    public void settleTranslation_movesImageEdgeToRestriction() {
+        assertEquals(100, CropEngine.settleTranslation(200, 500, 1000, 1, 100, 900), DELTA);
+        assertEquals(-100, CropEngine.settleTranslation(-200, 500, 1000, 1, 100, 900), DELTA);
+        assertEquals(50, CropEngine.settleTranslation(50, 500, 1000, 1, 100, 900), DELTA);
+    }
+
+    @Test
+    public void minAndMaxTranslation_putImageEdgesOnRestriction() {
+        assertEquals(-100, CropEngine.minTranslation(500, 1000, 1, 900), DELTA);
+        assertEquals(100, CropEngine.maxTranslation(500, 1000, 1, 100), DELTA);
+        assertEquals(400, CropEngine.maxTranslation(500, 1000, 1.6f, 100), DELTA);
+    }
+
+    @Test
+    public void coverScale_withoutRotation() {
+        assertEquals(0.8f, CropEngine.coverScale(1000, 500, 0, 800, 400), DELTA);
+    }
+
+    @Test
+    public void coverScale_withRotation() {
+        assertEquals(1.6f, CropEngine.coverScale(1000, 500, 90, 800, 400), DELTA);
+        float diagonal = (float) (800 * Math.sqrt(2));
+        assertEquals(diagonal / 1000, CropEngine.coverScale(1000, 1000, 45, 800, 800), DELTA);
+    }
+
+    @Test
+    public void clampScale_withRotationCoversRestriction() {
+        FloatRect base = new FloatRect(0, 0, 1000, 1000);
+        FloatRect restriction = new FloatRect(100, 100, 900, 900);
+        float cover = (float) (800 * Math.sqrt(2)) / 1000;
+        assertEquals(cover, CropEngine.clampScale(1, 2, base, 45, restriction), DELTA);
+        assertEquals(2, CropEngine.clampScale(3, 2, base, 45, restriction), DELTA);
+        // max scale never goes below what covers the restriction
+        assertEquals(cover, CropEngine.clampScale(3, 1, base, 45, restriction), DELTA);
+        assertEquals(1, CropEngine.clampScale(0.5f, 2, base, 0, restriction), DELTA);
+    }
+
+    @Test
+    public void settleTranslation_withoutRotationMatchesEachAxis() {
+        FloatRect base = new FloatRect(0, 0, 1000, 1000);
+        FloatRect restriction = new FloatRect(100, 100, 900, 900);
+        float[] out = new float[2];
+        CropEngine.settleTranslation(base, 1, 0, 200, -200, restriction, out);
+        assertEquals(CropEngine.settleTranslation(200, 500, 1000, 1, 100, 900), out[0], DELTA);
+        assertEquals(CropEngine.settleTranslation(-200, 500, 1000, 1, 100, 900), out[1], DELTA);
+    }
+
+    @Test
+    public void cornerRect_isInEachCorner() {
+        FloatRect crop = new FloatRect(100, 200, 500, 600);
+        FloatRect out = new FloatRect();
+        CropEngine.cornerRect(crop, 50, CropEngine.CORNER_TOP_LEFT, out);
+        assertRect(100, 200, 150, 250, out);
+        CropEngine.cornerRect(crop, 50, CropEngine.CORNER_TOP_RIGHT, out);
+        assertRect(450, 200, 500, 250, out);
+        CropEngine.cornerRect(crop, 50, CropEngine.CORNER_BOTTOM_LEFT, out);
+        assertRect(100, 550, 150, 600, out);
+        CropEngine.cornerRect(crop, 50, CropEngine.CORNER_BOTTOM_RIGHT, out);
+        assertRect(450, 550, 500, 600, out);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void cornerRect_rejectsUnknownCorner() {
+        CropEngine.cornerRect(new FloatRect(0, 0, 10, 10), 5, 4, new FloatRect());
+    }
+
+    @Test
+    public void toSourceRect_mapsCropRectToSourcePixels() {
+        IntRect out = new IntRect();
+        CropEngine.toSourceRect(2000, 1000, new FloatRect(0, 250, 1000, 750), new FloatRect(100, 300, 500, 700), out);
+        assertRect(200, 100, 1000, 900, out);
+    }
+
+    @Test
+    public void toSourceRect_clampsToSource() {
+        IntRect out = new IntRect();
+        CropEngine.toSourceRect(2000, 1000, new FloatRect(0, 250, 1000, 750), new FloatRect(-100, 200, 1100, 800), out);
+        assertRect(0, 0, 2000, 1000, out);
+    }
+
+    @Test
+    public void toSourceRect_withoutRotationMatchesPlain() {
+        FloatRect imageRect = new FloatRect(0, 250, 1000, 750);
+        FloatRect cropRect = new FloatRect(100, 300, 500, 700);
+        IntRect plain = new IntRect();
+        IntRect rotated = new IntRect();
+        CropEngine.toSourceRect(2000, 1000, imageRect, cropRect, plain);
+        CropEngine.toSourceRect(2000, 1000, imageRect, cropRect, 0, rotated);
+        assertRect(plain.left, plain.top, plain.right, plain.bottom, rotated);
+    }
+
+    @Test
+    public void toSourceRect_withRotationIsBoundsOfRotatedCropRect() {
+        FloatRect imageRect = new FloatRect(0, 0, 1000, 1000);
+        IntRect out = new IntRect();
+        CropEngine.toSourceRect(1000, 1000, imageRect, new FloatRect(250, 250, 750, 750), 90, out);
+        assertRect(250, 250, 750, 750, out);
+        // half of the diagonal of a 200 x 200 square is 141.42
+        CropEngine.toSourceRect(1000, 1000, imageRect, new FloatRect(400, 400, 600, 600), 45, out);
+        assertRect(358, 358, 642, 642, out);
+        CropEngine.toSourceRect(1000, 1000, imageRect, new FloatRect(0, 0, 100, 100), 180, out);
+        assertRect(900, 900, 1000, 1000, out);
+    }
+
+    @Test
+    public void sourceCropRect_followsScaleAndTranslation() {
+        FloatRect restriction = new FloatRect(100, 100, 900, 900);
+        IntRect out = new IntRect();
+        CropEngine.sourceCropRect(2000, 1000, 1000, 1000, restriction, 1, 0, 0, out);
+        assertRect(500, 0, 1500, 1000, out);
+        CropEngine.sourceCropRect(2000, 1000, 1000, 1000, restriction, 2, 0, 0, out);
+        assertRect(750, 250, 1250, 750, out);
+        CropEngine.sourceCropRect(2000, 1000, 1000, 1000, restriction, 1, 100, 0, out);
+        assertRect(375, 0, 1375, 1000, out);
+    }
+
+    @Test
+    public void sourceCropRect_isEmptyWithoutSource() {
+        IntRect out = new IntRect(1, 2, 3, 4);
+        CropEngine.sourceCropRect(0, 0, 1000, 1000, new FloatRect(100, 100, 900, 900), 1, 0, 0, out);
+        assertTrue(out.isEmpty());
+    }
+
+    @Test
+    public void sourceCropRect_withOrientationIsInStoredPixels() {
+        FloatRect restriction = new FloatRect(100, 100, 900, 900);
+        IntRect out = new IntRect();
+        CropEngine.sourceCropRect(CropEngine.ORIENTATION_NORMAL, 2000, 1000, 1000, 1000, restriction, 1, 0, 0, 0, out);
+        assertRect(500, 0, 1500, 1000, out);
+        // stored pixels are 1000 x 2000 and shown as 2000 x 1000
+        CropEngine.sourceCropRect(CropEngine.ORIENTATION_ROTATE_90, 1000, 2000, 1000, 1000, restriction, 1, 0, 0, 0, out);
+        assertRect(0, 500, 1000, 1500, out);
+    }
+
+    @Test
+    public void swapsDimensions_onlyForQuarterTurns() {
+        for (int orientation = 1; orientation <= 8; orientation++) {
+            assertEquals("orientation " + orientation, orientation >= 5, CropEngine.swapsDimensions(orientation));
+        }
+        assertFalse(CropEngine.swapsDimensions(0));
+    }
+
+    @Test
+    public void toStoredRect_mapsEveryPixelForEveryOrientation() {
+        int storedWidth = 3;
+        int storedHeight = 2;
+        IntRect out = new IntRect();
+        for (int orientation = 1; orientation <= 8; orientation++) {
+            for (int storedY = 0; storedY < storedHeight; storedY++) {
+                for (int storedX = 0; storedX < storedWidth; storedX++) {
+                    int[] oriented = orient(orientation, storedX, storedY, storedWidth, storedHeight);
+                    CropEngine.toStoredRect(orientation, storedWidth, storedHeight,
+                            new IntRect(oriented[0], oriented[1], oriented[0] + 1, oriented[1] + 1), out);
+                    assertRect(storedX, storedY, storedX + 1, storedY + 1, out);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void toStoredRect_canWriteToItsInput() {
+        IntRect rect = new IntRect(0, 0, 1, 2);
+        CropEngine.toStoredRect(CropEngine.ORIENTATION_ROTATE_180, 3, 2, rect, rect);
+        assertRect(2, 0, 3, 2, rect);
+    }
+
+    @Test
+    public void toStoredRect_treatsUnknownOrientationAsNormal() {
+        IntRect out = new IntRect();
+        CropEngine.toStoredRect(0, 3, 2, new IntRect(1, 0, 2, 1), out);
+        assertRect(1, 0, 2, 1, out);
+    }
+
+    @Test
+    public void calculateInSampleSize_keepsDecodedImageAtLeastRequiredSize() {
+        assertEquals(4, CropEngine.calculateInSampleSize(4000, 3000, 1000, 750));
+        assertEquals(2, CropEngine.calculateInSampleSize(4000, 3000, 1001, 750));
+        assertEquals(1, CropEngine.calculateInSampleSize(100, 100, 200, 200));
+        assertEquals(2048, CropEngine.calculateInSampleSize(4000, 3000, 1, 1));
+    }
+
+    @Test
+    public void cropPixels_copiesRegion() {
+        int[] src = sequence(4 * 3);
+        int[] dst = new int[4];
+        CropEngine.cropPixels(src, 4, new IntRect(1, 1, 3, 3), dst);
+        assertArrayEquals(new int[]{5, 6, 9, 10}, dst);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void cropPixels_rejectsRegionOutsideOfSource() {
+        CropEngine.cropPixels(sequence(4 * 3), 4, new IntRect(2, 0, 5, 1), new int[3]);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void cropPixels_rejectsSmallDst() {
+        CropEngine.cropPixels(sequence(4 * 3), 4, new IntRect(0, 0, 2, 2), new int[3]);
+    }
+
+    @Test
+    public void scalePixels_ofSameSizeCrops() {
+        int[] src = sequence(4 * 3);
+        int[] dst = new int[4];
+        CropEngine.scalePixels(src, 4, new IntRect(1, 1, 3, 3), dst, 2, 2);
+        assertArrayEquals(new int[]{5, 6, 9, 10}, dst);
+    }
+
+    @Test
+    public void scalePixels_blendsNeighbours() {
+        int black = 0xFF000000;
+        int blue = 0xFF0000C8;
+        int[] src = {black, blue, black, blue};
+        int[] dst = new int[2];
+        CropEngine.scalePixels(src, 4, new IntRect(0, 0, 4, 1), dst, 2, 1);
+        assertArrayEquals(new int[]{0xFF000064, 0xFF000064}, dst);
+    }
+
+    @Test
+    public void scalePixels_keepsUniformColor() {
+        int[] src = new int[5 * 5];
+        Arrays.fill(src, 0x80FF4020);
+        int[] dst = new int[7 * 3];
+        CropEngine.scalePixels(src, 5, new IntRect(0, 0, 5, 5), dst, 7, 3);
+        for (int pixel : dst) {
+            assertEquals(0x80FF4020, pixel);
+        }
+    }
+
+    @Test
+    public void scalePixels_inBandsMatchesWhole() {
+        int[] src = sequence(16 * 16);
+        IntRect region = new IntRect(2, 3, 14, 15);
+        int[] whole = new int[5 * 7];
+        int[] banded = new int[5 * 7];
+        CropEngine.scalePixels(src, 16, region, whole, 5, 7);
+        CropEngine.scalePixels(src, 16, region, banded, 5, 7, 0, 3);
+        CropEngine.scalePixels(src, 16, region, banded, 5, 7, 3, 7);
+        assertArrayEquals(whole, banded);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void scalePixels_rejectsRowsOutsideOfDst() {
+        CropEngine.scalePixels(sequence(16), 4, new IntRect(0, 0, 4, 4), new int[4], 2, 2, 1, 3);
+    }
+
+    @Test
+    public void rotatePixels_turnsClockwise() {
+        // 1 2 3
+        // 4 5 6
+        int[] src = {1, 2, 3, 4, 5, 6};
+        int[] dst = new int[6];
+        CropEngine.rotatePixels(src, 3, 2, 0, dst);
+        assertArrayEquals(src, dst);
+        CropEngine.rotatePixels(src, 3, 2, 90, dst);
+        assertArrayEquals(new int[]{4, 1, 5, 2, 6, 3}, dst);
+        CropEngine.rotatePixels(src, 3, 2, 180, dst);
+        assertArrayEquals(new int[]{6, 5, 4, 3, 2, 1}, dst);
+        CropEngine.rotatePixels(src, 3, 2, 270, dst);
+        assertArrayEquals(new int[]{3, 6, 2, 5, 1, 4}, dst);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rotatePixels_rejectsOtherDegrees() {
+        CropEngine.rotatePixels(new int[4], 2, 2, 45, new int[4]);
+    }
+
+    /**
+     * where the stored pixel (x, y) is shown upright, as the exif orientation describes it
+     **/
+    private static int[] orient(int orientation, int x, int y, int width, int height) {
+        switch (orientation) {
+            case CropEngine.ORIENTATION_FLIP_HORIZONTAL:
+                return new int[]{width - 1 - x, y};
+            case CropEngine.ORIENTATION_ROTATE_180:
+                return new int[]{width - 1 - x, height - 1 - y};
+            case CropEngine.ORIENTATION_FLIP_VERTICAL:
+                return new int[]{x, height - 1 - y};
+            case CropEngine.ORIENTATION_TRANSPOSE:
+                return new int[]{y, x};
+            case CropEngine.ORIENTATION_ROTATE_90:
+                return new int[]{height - 1 - y, x};
+            case CropEngine.ORIENTATION_TRANSVERSE:
+                return new int[]{height - 1 - y, width - 1 - x};
+            case CropEngine.ORIENTATION_ROTATE_270:
+                return new int[]{y, width - 1 - x};
+            default:
+                return new int[]{x, y};
+        }
+    }
+
+    private static int[] sequence(int size) {
+        int[] pixels = new int[size];
+        for (int i = 0; i < size; i++) {
+            pixels[i] = i;
+        }
+        return pixels;
+    }
+
+    private static void assertRect(float left, float top, float right, float bottom, FloatRect actual) {
+        String message = "expected (" + left + ", " + top + ", " + right + ", " + bottom + ") but was " + actual;
+        assertEquals(message, left, actual.left, DELTA);
+        assertEquals(message, top, actual.top, DELTA);
+        assertEquals(message, right, actual.right, DELTA);
+        assertEquals(message, bottom, actual.bottom, DELTA);
+    }
+
+    private static void assertRect(int left, int top, int right, int bottom, IntRect actual) {
+        String message = "expected (" + left + ", " + top + ", " + right + ", " + bottom + ") but was " + actual;
+        assertEquals(message, left, actual.left);
+        assertEquals(message, top, actual.top);
+        assertEquals(message, right, actual.right);
+        assertEquals(message, bottom, actual.bottom);
+    }
+}
@@ -0,0 +1,115 @@
+package com.takusemba.cropme.engine;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * TranslationBoundsTest
+ *
+ * @author takusemba
+ * @since 17/10/2026
+ **/
+public class TranslationBoundsTest {
+
+    private static final float DELTA = 0.01f;
+
+    private final FloatRect baseRect = new FloatRect(0, 0, 1000, 1000);
+    private final FloatRect restriction = new FloatRect(100, 100, 900, 900);
+
+    @Test
+    public void contains_withoutRotation() {
+        TranslationBounds bounds = new TranslationBounds();
+        bounds.set(baseRect, 1, 0, restriction);
+        assertTrue(bounds.contains(0, 0));
+        assertTrue(bounds.contains(100, -100));
+        assertFalse(bounds.contains(101, 0));
+        assertFalse(bounds.contains(0, -101));
+    }
+
+    @Test
+    public void settle_withoutRotationClampsEachAxis() {
+        TranslationBounds bounds = new TranslationBounds();
+        bounds.set(baseRect, 1, 0, restriction);
+        float[] out = new float[2];
+        bounds.settle(200, -200, out);
+        assertEquals(100, out[0], DELTA);
+        assertEquals(-100, out[1], DELTA);
+        bounds.settle(50, 300, out);
+        assertEquals(50, out[0], DELTA);
+        assertEquals(100, out[1], DELTA);
+    }
+
+    @Test
+    public void settle_keepsTranslationInBounds() {
+        TranslationBounds bounds = new TranslationBounds();
+        bounds.set(baseRect, 1.5f, 30, restriction);
+        float[] out = new float[2];
+        bounds.settle(10, -20, out);
+        assertEquals(10, out[0], 0);
+        assertEquals(-20, out[1], 0);
+    }
+
+    @Test
+    public void settle_withRotationCoversRestriction() {
+        TranslationBounds bounds = new TranslationBounds();
+        float[] out = new float[2];
+        for (float rotation : new float[]{15, 45, -30, 90, 170}) {
+            float scale = CropEngine.coverScale(baseRect.width(), baseRect.height(), rotation,
+                    restriction.width(), restriction.height()) * 1.2f;
+            bounds.set(baseRect, scale, rotation, restriction);
+            for (float[] translation : new float[][]{{500, 0}, {-400, 300}, {0, -600}, {250, 250}}) {
+                bounds.settle(translation[0], translation[1], out);
+                assertCovered(scale, rotation, out[0], out[1]);
+            }
+        }
+    }
+
+    @Test
+    public void settle_withRotationMovesLeastDistance() {
+        TranslationBounds bounds = new TranslationBounds();
+        bounds.set(baseRect, 1.2f, 45, restriction);
+        float[] out = new float[2];
+        bounds.settle(500, 0, out);
+        // any step back toward the original translation leaves the bounds
+        float dx = 500 - out[0];
+        float dy = -out[1];
+        float length = (float) Math.hypot(dx, dy);
+        assertFalse(bounds.contains(out[0] + dx / length, out[1] + dy / length));
+    }
+
+    @Test
+    public void settle_matchesEngine() {
+        TranslationBounds bounds = new TranslationBounds();
+        bounds.set(baseRect, 1.3f, 20, restriction);
+        float[] fromBounds = new float[2];
+        float[] fromEngine = new float[2];
+        bounds.settle(400, -350, fromBounds);
+        CropEngine.settleTranslation(baseRect, 1.3f, 20, 400, -350, restriction, fromEngine);
+        assertEquals(fromEngine[0], fromBounds[0], 0);
+        assertEquals(fromEngine[1], fromBounds[1], 0);
+    }
+
+    /**
+     * every corner of the restriction is on the image, scaled and rotated around its center and translated
+     **/
+    private void assertCovered(float scale, float rotation, float translationX, float translationY) {
+        double radians = Math.toRadians(rotation);
+        float cos = (float) Math.cos(radians);
+        float sin = (float) Math.sin(radians);
+        float centerX = baseRect.centerX() + translationX;
+        float centerY = baseRect.centerY() + translationY;
+        float halfWidth = baseRect.width() * scale / 2;
+        float halfHeight = baseRect.height() * scale / 2;
+        for (int i = 0; i < 4; i++) {
+            float x = (i % 2 == 0 ? restriction.left : restriction.right) - centerX;
+            float y = (i < 2 ? restriction.top : restriction.bottom) - centerY;
+            float localX = x * cos + y * sin;
+            float localY = -x * sin + y * cos;
+            assertTrue("corner " + i + " at rotation " + rotation, Math.abs(localX) <= halfWidth + DELTA);
+            assertTrue("corner " + i + " at rotation " + rotation, Math.abs(localY) <= halfHeight + DELTA);
+        }
+    }
+}
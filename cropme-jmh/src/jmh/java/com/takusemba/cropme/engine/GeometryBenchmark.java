@@ -0,0 +1,115 @@
+package com.takusemba.cropme.engine;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GeometryBenchmark
+ *
+ * geometry which runs on every frame of a gesture or an animation, and once per crop.
+ * a 4000x3000 image in a 1080x1920 view with a centered 864x864 crop box, zoomed by 1.5.
+ *
+ * @author takusemba
+ * @since 17/10/2026
+ **/
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class GeometryBenchmark {
+
+    private static final int SOURCE_WIDTH = 4000;
+    private static final int SOURCE_HEIGHT = 3000;
+    private static final float VIEW_WIDTH = 1080;
+    private static final float VIEW_HEIGHT = 1920;
+    private static final float SCALE = 1.5f;
+    private static final float CORNER_SIZE = 131;
+
+    private final FloatRect restriction = new FloatRect(108, 528, 972, 1392);
+    private final FloatRect baseRect = new FloatRect();
+    private final FloatRect imageRect = new FloatRect();
+    private final FloatRect cornerRect = new FloatRect();
+    private final IntRect sourceRect = new IntRect();
+    private final TranslationBounds bounds = new TranslationBounds();
+    private final float[] settled = new float[2];
+
+    private float translationX;
+    private float translationY;
+    private float settledTranslationX;
+
+    @Setup
+    public void setUp() {
+        CropEngine.fitBaseRect(SOURCE_WIDTH, SOURCE_HEIGHT, VIEW_WIDTH, VIEW_HEIGHT,
+                restriction.width(), restriction.height(), true, baseRect);
+        // out of bounds on x and in bounds on y, so both branches of settleTranslation are taken
+        translationX = baseRect.width() * SCALE;
+        translationY = 10;
+        settledTranslationX = CropEngine.settleTranslation(translationX, baseRect.centerX(), baseRect.width(),
+                SCALE, restriction.left, restriction.right);
+        bounds.set(baseRect, CropEngine.clampScale(SCALE, 2), 0, restriction);
+    }
+
+    /**
+     * what the move animators did on every spring and fling frame, one axis at a time
+     **/
+    @Benchmark
+    public void settleTranslation(Blackhole blackhole) {
+        blackhole.consume(CropEngine.settleTranslation(translationX, baseRect.centerX(), baseRect.width(),
+                CropEngine.clampScale(SCALE, 2), restriction.left, restriction.right));
+        blackhole.consume(CropEngine.settleTranslation(translationY, baseRect.centerY(), baseRect.height(),
+                CropEngine.clampScale(SCALE, 2), restriction.top, restriction.bottom));
+    }
+
+    /**
+     * what the transform animator does on every fling frame. bounds are set once per scale change.
+     **/
+    @Benchmark
+    public boolean boundsContains() {
+        return bounds.contains(translationX, translationY);
+    }
+
+    /**
+     * what the transform animator does when a fling runs off of the crop box or a gesture ends
+     **/
+    @Benchmark
+    public float[] boundsSettle() {
+        bounds.settle(translationX, translationY, settled);
+        return settled;
+    }
+
+    /**
+     * what the overlay does every time the crop box is resized
+     **/
+    @Benchmark
+    public FloatRect cornerRects() {
+        CropEngine.cornerRect(restriction, CORNER_SIZE, CropEngine.CORNER_TOP_LEFT, cornerRect);
+        CropEngine.cornerRect(restriction, CORNER_SIZE, CropEngine.CORNER_TOP_RIGHT, cornerRect);
+        CropEngine.cornerRect(restriction, CORNER_SIZE, CropEngine.CORNER_BOTTOM_LEFT, cornerRect);
+        CropEngine.cornerRect(restriction, CORNER_SIZE, CropEngine.CORNER_BOTTOM_RIGHT, cornerRect);
+        return cornerRect;
+    }
+
+    @Benchmark
+    public IntRect toSourceRect() {
+        CropEngine.transformedRect(baseRect, SCALE, settledTranslationX, translationY, imageRect);
+        CropEngine.toSourceRect(SOURCE_WIDTH, SOURCE_HEIGHT, imageRect, restriction, sourceRect);
+        return sourceRect;
+    }
+
+    /**
+     * everything from the view size to the source rect, which is what a crop starts with
+     **/
+    @Benchmark
+    public IntRect sourceCropRect() {
+        CropEngine.sourceCropRect(SOURCE_WIDTH, SOURCE_HEIGHT, VIEW_WIDTH, VIEW_HEIGHT,
+                restriction, SCALE, settledTranslationX, translationY, sourceRect);
+        return sourceRect;
+    }
+}
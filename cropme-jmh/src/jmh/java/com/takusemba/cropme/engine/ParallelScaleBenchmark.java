@@ -0,0 +1,79 @@
+package com.takusemba.cropme.engine;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ParallelScaleBenchmark
+ *
+ * scale of one image split into bands of rows, one band per thread.
+ * shows how far a scale speeds up before memory bandwidth is the limit.
+ *
+ * @author takusemba
+ * @since 17/10/2026
+ **/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ParallelScaleBenchmark {
+
+    @Param({"12", "48"})
+    public int megapixels;
+
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+
+    private ExecutorService executor;
+    private List<Callable<Void>> bands;
+    private int[] scaled;
+
+    @Setup
+    public void setUp() {
+        final int width = (int) Math.sqrt(megapixels * 1000000 * 4 / 3.0);
+        final int height = width * 3 / 4;
+        final int[] src = PixelBenchmark.randomPixels(width * height);
+        final IntRect region = new IntRect(0, 0, width, height);
+        final int dstWidth = width / 2;
+        final int dstHeight = height / 2;
+        scaled = new int[dstWidth * dstHeight];
+
+        executor = Executors.newFixedThreadPool(threads);
+        bands = new ArrayList<>(threads);
+        for (int i = 0; i < threads; i++) {
+            final int fromRow = dstHeight * i / threads;
+            final int toRow = dstHeight * (i + 1) / threads;
+            bands.add(new Callable<Void>() {
+                @Override
+                public Void call() {
+                    CropEngine.scalePixels(src, width, region, scaled, dstWidth, dstHeight, fromRow, toRow);
+                    return null;
+                }
+            });
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdown();
+    }
+
+    @Benchmark
+    public int[] scale() throws InterruptedException {
+        executor.invokeAll(bands);
+        return scaled;
+    }
+}
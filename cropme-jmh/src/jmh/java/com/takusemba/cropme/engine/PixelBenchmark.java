@@ -0,0 +1,83 @@
+package com.takusemba.cropme.engine;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PixelBenchmark
+ *
+ * ARGB kernels on a 4:3 source of the given megapixels. the crop is the centered 80% of the source,
+ * and the scale halves it, the same as a crop with an output size does.
+ *
+ * @author takusemba
+ * @since 17/10/2026
+ **/
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PixelBenchmark {
+
+    @Param({"2", "12", "48"})
+    public int megapixels;
+
+    private int width;
+    private int height;
+    private int[] src;
+    private IntRect region;
+    private int[] cropped;
+    private int[] scaled;
+    private int[] rotated;
+
+    @Setup
+    public void setUp() {
+        width = (int) Math.sqrt(megapixels * 1000000 * 4 / 3.0);
+        height = width * 3 / 4;
+        src = randomPixels(width * height);
+        region = new IntRect(width / 10, height / 10, width - width / 10, height - height / 10);
+        cropped = new int[region.width() * region.height()];
+        scaled = new int[(region.width() / 2) * (region.height() / 2)];
+        rotated = new int[width * height];
+    }
+
+    @Benchmark
+    public int[] crop() {
+        CropEngine.cropPixels(src, width, region, cropped);
+        return cropped;
+    }
+
+    @Benchmark
+    public int[] scale() {
+        CropEngine.scalePixels(src, width, region, scaled, region.width() / 2, region.height() / 2);
+        return scaled;
+    }
+
+    @Benchmark
+    public int[] rotate90() {
+        CropEngine.rotatePixels(src, width, height, 90, rotated);
+        return rotated;
+    }
+
+    @Benchmark
+    public int[] rotate180() {
+        CropEngine.rotatePixels(src, width, height, 180, rotated);
+        return rotated;
+    }
+
+    static int[] randomPixels(int size) {
+        int[] pixels = new int[size];
+        Random random = new Random(42);
+        for (int i = 0; i < size; i++) {
+            pixels[i] = random.nextInt();
+        }
+        return pixels;
+    }
+}
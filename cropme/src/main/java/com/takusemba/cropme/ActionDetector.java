@@ -2,6 +2,7 @@ package com.takusemba.cropme;
 
 import android.content.Context;
 import android.support.v4.view.GestureDetectorCompat;
+import android.view.Choreographer;
 import android.view.GestureDetector;
 import android.view.MotionEvent;
 import android.view.ScaleGestureDetector;
@@ -9,15 +10,50 @@ import android.view.ScaleGestureDetector;
 /**
  * ActionDetector
  *
+ * moves, scales and rotations are accumulated and handed to the listener once per frame, so a touch panel which
+ * reports faster than the display refreshes does not update the image several times in a frame.
+ * anything accumulated is handed over before an event other than a move is handled.
+ *
  * @author takusemba
  * @since 05/09/2017
  **/
 class ActionDetector {
 
+    /**
+     * degrees two fingers have to turn before it is taken as a rotation, so pinching does not rotate the image
+     **/
+    private static final float ROTATION_SLOP = 5f;
+
     private ActionListener listener;
     private GestureDetectorCompat gestureDetectorCompat;
     private ScaleGestureDetector scaleGestureDetector;
 
+    private float pendingDx;
+    private float pendingDy;
+    private boolean hasPendingMove = false;
+    private float pendingScale = 1;
+    private float pendingFocusX;
+    private float pendingFocusY;
+    private boolean hasPendingScale = false;
+    private float pendingRotation;
+    private float pendingRotationFocusX;
+    private float pendingRotationFocusY;
+    private boolean hasPendingRotation = false;
+    private boolean framePosted = false;
+
+    private float lastAngle;
+    private boolean hasLastAngle = false;
+    private float rotationBeforeSlop;
+    private boolean isRotating = false;
+
+    private final Choreographer.FrameCallback frameCallback = new Choreographer.FrameCallback() {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            framePosted = false;
+            flush();
+        }
+    };
+
     ActionDetector(Context context, ActionListener actionListener) {
         this.listener = actionListener;
         this.gestureDetectorCompat = new GestureDetectorCompat(context, simpleOnGestureListener);
@@ -28,8 +64,13 @@ class ActionDetector {
         if (gestureDetectorCompat == null) {
             throw new IllegalStateException("GestureDetectorCompat must not be null");
         }
+        if (event.getActionMasked() != MotionEvent.ACTION_MOVE) {
+            // ends of gestures read the image, so it has to be where the last move put it
+            flush();
+        }
         gestureDetectorCompat.onTouchEvent(event);
         scaleGestureDetector.onTouchEvent(event);
+        detectRotation(event);
         switch (event.getAction()) {
             case MotionEvent.ACTION_UP:
                 listener.onMoveEnded();
@@ -37,6 +78,125 @@ class ActionDetector {
         }
     }
 
+    /**
+     * hand accumulated moves and scales to the listener now
+     **/
+    void flush() {
+        if (framePosted) {
+            Choreographer.getInstance().removeFrameCallback(frameCallback);
+            framePosted = false;
+        }
+        if (hasPendingScale) {
+            hasPendingScale = false;
+            float scale = pendingScale;
+            pendingScale = 1;
+            listener.onScaled(scale, pendingFocusX, pendingFocusY);
+        }
+        if (hasPendingRotation) {
+            hasPendingRotation = false;
+            float degrees = pendingRotation;
+            pendingRotation = 0;
+            listener.onRotated(degrees, pendingRotationFocusX, pendingRotationFocusY);
+        }
+        if (hasPendingMove) {
+            hasPendingMove = false;
+            float dx = pendingDx;
+            float dy = pendingDy;
+            pendingDx = 0;
+            pendingDy = 0;
+            listener.onMoved(dx, dy);
+        }
+    }
+
+    /**
+     * drop what is accumulated and the frame it waits for, so nothing is handed to the listener
+     * after the view is detached
+     **/
+    void cancel() {
+        if (framePosted) {
+            Choreographer.getInstance().removeFrameCallback(frameCallback);
+            framePosted = false;
+        }
+        hasPendingScale = false;
+        pendingScale = 1;
+        hasPendingRotation = false;
+        pendingRotation = 0;
+        hasPendingMove = false;
+        pendingDx = 0;
+        pendingDy = 0;
+    }
+
+    /**
+     * angle of the line between the first two fingers. it is measured again whenever a finger is added or
+     * lifted, so the image does not jump when the pair of fingers changes.
+     **/
+    private void detectRotation(MotionEvent event) {
+        switch (event.getActionMasked()) {
+            case MotionEvent.ACTION_MOVE:
+                if (event.getPointerCount() < 2) {
+                    return;
+                }
+                float angle = (float) Math.toDegrees(Math.atan2(event.getY(1) - event.getY(0),
+                        event.getX(1) - event.getX(0)));
+                if (!hasLastAngle) {
+                    lastAngle = angle;
+                    hasLastAngle = true;
+                    return;
+                }
+                float delta = angle - lastAngle;
+                lastAngle = angle;
+                // atan2 wraps at 180 degrees
+                if (delta > 180) {
+                    delta -= 360;
+                } else if (delta < -180) {
+                    delta += 360;
+                }
+                if (!isRotating) {
+                    rotationBeforeSlop += delta;
+                    if (Math.abs(rotationBeforeSlop) < ROTATION_SLOP) {
+                        return;
+                    }
+                    isRotating = true;
+                    delta = rotationBeforeSlop;
+                }
+                pendingRotation += delta;
+                pendingRotationFocusX = (event.getX(0) + event.getX(1)) / 2;
+                pendingRotationFocusY = (event.getY(0) + event.getY(1)) / 2;
+                hasPendingRotation = true;
+                postFrame();
+                break;
+            case MotionEvent.ACTION_POINTER_DOWN:
+                hasLastAngle = false;
+                break;
+            case MotionEvent.ACTION_POINTER_UP:
+                hasLastAngle = false;
+                if (event.getPointerCount() <= 2) {
+                    endRotation();
+                }
+                break;
+            case MotionEvent.ACTION_UP:
+            case MotionEvent.ACTION_CANCEL:
+                hasLastAngle = false;
+                endRotation();
+                break;
+        }
+    }
+
+    private void endRotation() {
+        rotationBeforeSlop = 0;
+        if (isRotating) {
+            isRotating = false;
+            listener.onRotateEnded();
+        }
+    }
+
+    private void postFrame() {
+        if (!framePosted) {
+            framePosted = true;
+            Choreographer.getInstance().postFrameCallback(frameCallback);
+        }
+    }
+
     private GestureDetector.SimpleOnGestureListener simpleOnGestureListener = new GestureDetector.SimpleOnGestureListener() {
 
         @Override
@@ -57,7 +217,10 @@ class ActionDetector {
 
         @Override
         public boolean onScroll(MotionEvent initialEvent, MotionEvent currentEvent, float dx, float dy) {
-            listener.onMoved(-dx, -dy);
+            pendingDx -= dx;
+            pendingDy -= dy;
+            hasPendingMove = true;
+            postFrame();
             return true;
         }
 
@@ -85,12 +248,18 @@ class ActionDetector {
         @Override
         public void onScaleEnd(ScaleGestureDetector detector) {
             super.onScaleEnd(detector);
+            flush();
             listener.onScaleEnded();
         }
 
         @Override
         public boolean onScale(ScaleGestureDetector detector) {
-            listener.onScaled(detector.getScaleFactor());
+            // scale factors multiply, and the latest focal point is where the fingers are on this frame
+            pendingScale *= detector.getScaleFactor();
+            pendingFocusX = detector.getFocusX();
+            pendingFocusY = detector.getFocusY();
+            hasPendingScale = true;
+            postFrame();
             return true;
         }
     };
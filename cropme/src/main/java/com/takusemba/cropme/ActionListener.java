@@ -9,12 +9,14 @@ package com.takusemba.cropme;
 interface ActionListener {
 
     /**
-     * Called when scaling action is detected
+     * Called once a frame with the scaling detected since the previous frame
      *
-     * @param scale scaling out when it's greater than 1
-     *              scaling in when it's less than 1
+     * @param scale  scaling out when it's greater than 1
+     *               scaling in when it's less than 1
+     * @param focusX x of the focal point of the gesture
+     * @param focusY y of the focal point of the gesture
      */
-    void onScaled(float scale);
+    void onScaled(float scale, float focusX, float focusY);
 
     /**
      * Called when scaling action ends
@@ -22,7 +24,21 @@ interface ActionListener {
     void onScaleEnded();
 
     /**
-     * Called when moving action is detected
+     * Called once a frame with the rotation detected since the previous frame
+     *
+     * @param degrees clockwise rotation in degrees
+     * @param focusX  x of the point between the two fingers
+     * @param focusY  y of the point between the two fingers
+     */
+    void onRotated(float degrees, float focusX, float focusY);
+
+    /**
+     * Called when rotating action ends
+     */
+    void onRotateEnded();
+
+    /**
+     * Called once a frame with the moving detected since the previous frame
      *
      * @param dx horizontal moved distance
      * @param dy vertical moved distance
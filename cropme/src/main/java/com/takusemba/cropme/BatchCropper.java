@@ -0,0 +1,543 @@
+package com.takusemba.cropme;
+
+import android.content.ContentResolver;
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.BitmapRegionDecoder;
+import android.net.Uri;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.takusemba.cropme.engine.CropEngine;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * BatchCropper
+ *
+ * crops many images without a view, each by a rect normalized to the image shown upright.
+ * jobs are read from the iterable only as fast as workers take them, and each job waits until the
+ * memory it needs at peak is free within the budget. small images are cropped up to max concurrency
+ * at a time, and big ones fewer at a time, so a batch of any size keeps within the budget.
+ * results are handed over on worker threads, so listeners are called for several jobs at the same time.
+ *
+ * @author takusemba
+ * @since 17/10/2026
+ **/
+public final class BatchCropper {
+
+    private static final int BYTES_PER_UNIT = 1024;
+
+    /**
+     * one image to crop
+     **/
+    public static final class Job {
+
+        private final Uri uri;
+        private final CropSpec spec;
+
+        public Job(@NonNull Uri uri, @NonNull CropSpec spec) {
+            this.uri = uri;
+            this.spec = spec;
+        }
+
+        @NonNull
+        public Uri getUri() {
+            return uri;
+        }
+
+        @NonNull
+        public CropSpec getSpec() {
+            return spec;
+        }
+    }
+
+    /**
+     * where results of a batch go
+     **/
+    private interface Sink {
+
+        /**
+         * @return true if bitmap is handed over, false if it could not be
+         **/
+        boolean onCropped(int index, Job job, Bitmap bitmap);
+
+        void onFailed(int index, Job job);
+
+        void onFinished(BatchMetrics metrics);
+    }
+
+    private final ContentResolver resolver;
+    private final long memoryBudget;
+    private final int maxConcurrency;
+    @Nullable
+    private final Executor executor;
+    @Nullable
+    private final BitmapPool pool;
+
+    private BatchCropper(Builder builder) {
+        this.resolver = builder.context.getContentResolver();
+        this.memoryBudget = builder.memoryBudget > 0
+                ? builder.memoryBudget : DecodePolicy.forDevice(builder.context).getMaxBytes();
+        this.maxConcurrency = builder.maxConcurrency;
+        this.executor = builder.executor;
+        this.pool = builder.bitmapPool;
+    }
+
+    /**
+     * jobs which crop every uri by the same spec. uris are read lazily as the batch goes.
+     **/
+    @NonNull
+    public static Iterable<Job> jobsOf(@NonNull final Iterable<Uri> uris, @NonNull final CropSpec spec) {
+        return new Iterable<Job>() {
+            @Override
+            public Iterator<Job> iterator() {
+                final Iterator<Uri> iterator = uris.iterator();
+                return new Iterator<Job>() {
+                    @Override
+                    public boolean hasNext() {
+                        return iterator.hasNext();
+                    }
+
+                    @Override
+                    public Job next() {
+                        return new Job(iterator.next(), spec);
+                    }
+
+                    @Override
+                    public void remove() {
+                        throw new UnsupportedOperationException();
+                    }
+                };
+            }
+        };
+    }
+
+    /**
+     * crop jobs in the background and hand each result to listener as soon as it is cropped.
+     * results which are handed over belong to the listener. give them back to the bitmap pool when it is set.
+     * listener is called on worker threads, for several jobs at the same time, so it has to be thread safe.
+     **/
+    @NonNull
+    public CropTask crop(@NonNull Iterable<Job> jobs, @NonNull final OnBatchCropListener listener) {
+        return start(jobs, new Sink() {
+            @Override
+            public boolean onCropped(int index, Job job, Bitmap bitmap) {
+                listener.onCropped(index, job, bitmap);
+                return true;
+            }
+
+            @Override
+            public void onFailed(int index, Job job) {
+                listener.onFailed(index, job);
+            }
+
+            @Override
+            public void onFinished(BatchMetrics metrics) {
+                listener.onFinished(metrics);
+            }
+        });
+    }
+
+    /**
+     * crop jobs in the background and write each result to directory, named by the index of the job.
+     * pixels of each result are released as soon as it is written.
+     * listener is called on worker threads, for several jobs at the same time, so it has to be thread safe.
+     **/
+    @NonNull
+    public CropTask cropTo(@NonNull Iterable<Job> jobs, @NonNull final File directory,
+                           @NonNull final Bitmap.CompressFormat format, final int quality,
+                           @NonNull final OnBatchCropToListener listener) {
+        return start(jobs, new Sink() {
+            @Override
+            public boolean onCropped(int index, Job job, Bitmap bitmap) {
+                File file = new File(directory, index + extensionOf(format));
+                boolean written = write(bitmap, format, quality, file);
+                Cropper.release(bitmap, pool);
+                if (written) {
+                    listener.onCropped(index, job, file);
+                }
+                return written;
+            }
+
+            @Override
+            public void onFailed(int index, Job job) {
+                listener.onFailed(index, job);
+            }
+
+            @Override
+            public void onFinished(BatchMetrics metrics) {
+                listener.onFinished(metrics);
+            }
+        });
+    }
+
+    private CropTask start(Iterable<Job> jobs, Sink sink) {
+        CropTask task = new CropTask();
+        ExecutorService ownExecutor = executor == null ? Executors.newFixedThreadPool(maxConcurrency) : null;
+        final Batch batch = new Batch(jobs.iterator(), executor != null ? executor : ownExecutor, ownExecutor, task, sink);
+        // even the first jobs read bounds from their sources, so they are handed out in the background too
+        batch.executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                batch.pump();
+            }
+        });
+        return task;
+    }
+
+    /**
+     * one run of jobs. nothing waits for a worker or for memory. jobs are handed out whenever there are
+     * a free worker and enough memory, either when the batch starts or when a job finishes,
+     * so the batch runs on any executor, even one which runs a single task at a time.
+     **/
+    private final class Batch {
+
+        private final Iterator<Job> jobs;
+        private final Executor executor;
+        @Nullable
+        private final ExecutorService ownExecutor;
+        private final CropTask task;
+        private final Sink sink;
+        private final int budgetUnits = (int) Math.min(memoryBudget / BYTES_PER_UNIT, Integer.MAX_VALUE);
+        private final long start = System.nanoTime();
+        private final AtomicInteger croppedCount = new AtomicInteger();
+        private final AtomicInteger failedCount = new AtomicInteger();
+
+        // guarded by this
+        private int running;
+        private int usedUnits;
+        private int peakConcurrency;
+        private boolean pumping = false;
+        private boolean pumpAgain = false;
+        private boolean exhausted = false;
+        private boolean finished = false;
+
+        // only touched by the thread which is pumping
+        private int nextIndex;
+        @Nullable
+        private Prepared waiting;
+
+        Batch(Iterator<Job> jobs, Executor executor, @Nullable ExecutorService ownExecutor, CropTask task, Sink sink) {
+            this.jobs = jobs;
+            this.executor = executor;
+            this.ownExecutor = ownExecutor;
+            this.task = task;
+            this.sink = sink;
+        }
+
+        /**
+         * hand out jobs until there is no free worker or not enough memory.
+         * a thread which calls this while another one is handing out only asks it to go on.
+         **/
+        void pump() {
+            synchronized (this) {
+                if (pumping) {
+                    pumpAgain = true;
+                    return;
+                }
+                pumping = true;
+            }
+            boolean done;
+            do {
+                while (startNext()) {
+                    // go on while jobs start
+                }
+                synchronized (this) {
+                    done = !pumpAgain;
+                    pumpAgain = false;
+                    if (done) {
+                        pumping = false;
+                    }
+                }
+            } while (!done);
+            finishIfDone();
+        }
+
+        /**
+         * @return true if a job is started or failed, false if the batch has to wait or has no job left
+         **/
+        private boolean startNext() {
+            synchronized (this) {
+                if (running >= maxConcurrency || exhausted || task.isCancelled()) {
+                    return false;
+                }
+            }
+            if (waiting == null) {
+                Job job;
+                try {
+                    job = jobs.hasNext() ? jobs.next() : null;
+                } catch (RuntimeException e) {
+                    // jobs which can not be read end the batch as if there were no more
+                    job = null;
+                }
+                if (job == null) {
+                    synchronized (this) {
+                        exhausted = true;
+                    }
+                    return false;
+                }
+                int index = nextIndex++;
+                try {
+                    waiting = prepare(index, job);
+                } catch (RuntimeException e) {
+                    fail(index, job);
+                    return true;
+                }
+            }
+            Prepared prepared = waiting;
+            synchronized (this) {
+                // a job bigger than the whole budget runs alone
+                if (running > 0 && usedUnits + prepared.units > budgetUnits) {
+                    return false;
+                }
+                running++;
+                usedUnits += prepared.units;
+                peakConcurrency = Math.max(peakConcurrency, running);
+            }
+            waiting = null;
+            try {
+                executor.execute(prepared);
+            } catch (RejectedExecutionException e) {
+                synchronized (this) {
+                    running--;
+                    usedUnits -= prepared.units;
+                }
+                fail(prepared.index, prepared.job);
+            }
+            return true;
+        }
+
+        private Prepared prepare(int index, Job job) {
+            BitmapFactory.Options bounds = BitmapLoader.decodeBounds(resolver, job.uri);
+            int orientation = bounds != null
+                    ? ExifOrientation.read(resolver, job.uri) : CropEngine.ORIENTATION_NORMAL;
+            int units = (int) Math.max(1, Math.min(budgetUnits,
+                    peakBytes(bounds, orientation, job.spec) / BYTES_PER_UNIT));
+            return new Prepared(this, index, job, orientation, units);
+        }
+
+        void onJobDone(Prepared prepared) {
+            synchronized (this) {
+                running--;
+                usedUnits -= prepared.units;
+            }
+            pump();
+        }
+
+        void runJob(int index, Job job, int orientation) {
+            if (task.isCancelled()) {
+                return;
+            }
+            Bitmap result;
+            try {
+                result = cropJob(job, orientation);
+            } catch (RuntimeException e) {
+                result = null;
+            }
+            if (task.isCancelled()) {
+                if (result != null) {
+                    Cropper.release(result, pool);
+                }
+                return;
+            }
+            if (result != null && sink.onCropped(index, job, result)) {
+                croppedCount.incrementAndGet();
+            } else {
+                fail(index, job);
+            }
+        }
+
+        private void fail(int index, Job job) {
+            failedCount.incrementAndGet();
+            if (!task.isCancelled()) {
+                sink.onFailed(index, job);
+            }
+        }
+
+        /**
+         * end the batch once no job is running and none is left to start, or it is cancelled
+         **/
+        private void finishIfDone() {
+            synchronized (this) {
+                if (finished || pumping || running > 0 || !(exhausted || task.isCancelled())) {
+                    return;
+                }
+                finished = true;
+            }
+            if (ownExecutor != null) {
+                ownExecutor.shutdown();
+            }
+            sink.onFinished(new BatchMetrics(croppedCount.get(), failedCount.get(),
+                    System.nanoTime() - start, peakConcurrency, task.isCancelled()));
+        }
+    }
+
+    /**
+     * job whose orientation and memory are read, which waits for a worker
+     **/
+    private static final class Prepared implements Runnable {
+
+        private final Batch batch;
+        private final int index;
+        private final Job job;
+        private final int orientation;
+        private final int units;
+
+        Prepared(Batch batch, int index, Job job, int orientation, int units) {
+            this.batch = batch;
+            this.index = index;
+            this.job = job;
+            this.orientation = orientation;
+            this.units = units;
+        }
+
+        @Override
+        public void run() {
+            try {
+                batch.runJob(index, job, orientation);
+            } finally {
+                batch.onJobDone(this);
+            }
+        }
+    }
+
+    @Nullable
+    private Bitmap cropJob(Job job, int orientation) {
+        BitmapRegionDecoder decoder = BitmapLoader.newRegionDecoder(resolver, job.uri);
+        if (decoder == null) {
+            return null;
+        }
+        try {
+            return RegionCropper.decodeRegion(decoder, orientation, job.spec, pool);
+        } finally {
+            decoder.recycle();
+        }
+    }
+
+    /**
+     * bytes of the subsampled region and the result, which are alive at the same time while a job is cropped
+     **/
+    private static long peakBytes(@Nullable BitmapFactory.Options bounds, int orientation, CropSpec spec) {
+        long bytesPerPixel = BitmapPool.bytesPerPixel(spec.config);
+        if (bytesPerPixel == 0) {
+            bytesPerPixel = 4;
+        }
+        long resultBytes = (long) spec.outputWidth * spec.outputHeight * bytesPerPixel;
+        if (bounds == null) {
+            return resultBytes;
+        }
+        boolean swapped = CropEngine.swapsDimensions(orientation);
+        int regionWidth = Math.max(1, Math.round(spec.rect.width() * (swapped ? bounds.outHeight : bounds.outWidth)));
+        int regionHeight = Math.max(1, Math.round(spec.rect.height() * (swapped ? bounds.outWidth : bounds.outHeight)));
+        int inSampleSize = CropEngine.calculateInSampleSize(regionWidth, regionHeight,
+                spec.outputWidth, spec.outputHeight);
+        long decodedWidth = (regionWidth + inSampleSize - 1) / inSampleSize;
+        long decodedHeight = (regionHeight + inSampleSize - 1) / inSampleSize;
+        return decodedWidth * decodedHeight * bytesPerPixel + resultBytes;
+    }
+
+    private static String extensionOf(Bitmap.CompressFormat format) {
+        switch (format) {
+            case JPEG:
+                return ".jpg";
+            case PNG:
+                return ".png";
+            default:
+                return ".webp";
+        }
+    }
+
+    /**
+     * @return true if bitmap is written, false otherwise. file is deleted if it fails.
+     **/
+    private static boolean write(Bitmap bitmap, Bitmap.CompressFormat format, int quality, File file) {
+        OutputStream stream = null;
+        boolean written = false;
+        try {
+            stream = new BufferedOutputStream(new FileOutputStream(file));
+            written = bitmap.compress(format, quality, stream);
+            stream.flush();
+        } catch (IOException e) {
+            written = false;
+        } finally {
+            BitmapLoader.closeQuietly(stream);
+            if (!written) {
+                //noinspection ResultOfMethodCallIgnored
+                file.delete();
+            }
+        }
+        return written;
+    }
+
+    public static final class Builder {
+
+        private final Context context;
+        private long memoryBudget;
+        private int maxConcurrency = Runtime.getRuntime().availableProcessors();
+        @Nullable
+        private Executor executor;
+        @Nullable
+        private BitmapPool bitmapPool;
+
+        public Builder(@NonNull Context context) {
+            this.context = context.getApplicationContext() != null ? context.getApplicationContext() : context;
+        }
+
+        /**
+         * bytes which images being cropped at the same time can use.
+         * by default, the same budget as {@link DecodePolicy#forDevice(Context)}.
+         **/
+        public Builder setMemoryBudget(long memoryBudget) {
+            if (memoryBudget <= 0) {
+                throw new IllegalArgumentException("memoryBudget must be greater than 0");
+            }
+            this.memoryBudget = memoryBudget;
+            return this;
+        }
+
+        /**
+         * images which are cropped at the same time at most. the number of processors by default.
+         **/
+        public Builder setMaxConcurrency(int maxConcurrency) {
+            if (maxConcurrency < 1) {
+                throw new IllegalArgumentException("maxConcurrency must be at least 1");
+            }
+            this.maxConcurrency = maxConcurrency;
+            return this;
+        }
+
+        /**
+         * executor which a batch runs on. no task of a batch waits on it, so any executor works,
+         * and images are cropped as many at a time as it runs tasks at once, up to max concurrency.
+         * by default, a pool of max concurrency threads is made for each batch.
+         **/
+        public Builder setExecutor(@Nullable Executor executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        /**
+         * pool which decoded regions and results are taken from
+         **/
+        public Builder setBitmapPool(@Nullable BitmapPool bitmapPool) {
+            this.bitmapPool = bitmapPool;
+            return this;
+        }
+
+        public BatchCropper build() {
+            return new BatchCropper(this);
+        }
+    }
+}
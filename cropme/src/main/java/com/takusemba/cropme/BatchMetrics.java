@@ -0,0 +1,67 @@
+package com.takusemba.cropme;
+
+/**
+ * BatchMetrics
+ *
+ * @author takusemba
+ * @since 17/10/2026
+ **/
+public final class BatchMetrics {
+
+    private final int croppedCount;
+    private final int failedCount;
+    private final long elapsedNanos;
+    private final int peakConcurrency;
+    private final boolean cancelled;
+
+    BatchMetrics(int croppedCount, int failedCount, long elapsedNanos, int peakConcurrency, boolean cancelled) {
+        this.croppedCount = croppedCount;
+        this.failedCount = failedCount;
+        this.elapsedNanos = elapsedNanos;
+        this.peakConcurrency = peakConcurrency;
+        this.cancelled = cancelled;
+    }
+
+    /**
+     * number of images which are cropped
+     **/
+    public int getCroppedCount() {
+        return croppedCount;
+    }
+
+    /**
+     * number of images which can not be cropped
+     **/
+    public int getFailedCount() {
+        return failedCount;
+    }
+
+    /**
+     * time from the start of the batch until the last image is done
+     **/
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * cropped images per second over the whole batch
+     **/
+    public float getImagesPerSecond() {
+        return elapsedNanos > 0 ? croppedCount * 1e9f / elapsedNanos : 0;
+    }
+
+    /**
+     * most images which were cropped at the same time. it is lower than the max concurrency
+     * when the images are too big to crop that many of them within the memory budget.
+     **/
+    public int getPeakConcurrency() {
+        return peakConcurrency;
+    }
+
+    /**
+     * true if the batch is cancelled before every job is done. counts are of the jobs done until then.
+     **/
+    public boolean isCancelled() {
+        return cancelled;
+    }
+}
@@ -0,0 +1,274 @@
+package com.takusemba.cropme;
+
+import android.content.ContentResolver;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.BitmapRegionDecoder;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.net.Uri;
+import android.support.annotation.Nullable;
+
+import com.takusemba.cropme.engine.CropEngine;
+import com.takusemba.cropme.engine.FloatRect;
+import com.takusemba.cropme.engine.IntRect;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * BitmapLoader
+ *
+ * @author takusemba
+ * @since 17/10/2026
+ **/
+class BitmapLoader {
+
+    private static final int BUFFER_SIZE = 16 * 1024;
+
+    private BitmapLoader() {
+    }
+
+    /**
+     * decode only the part of the source image which is under cropRect.
+     * the region is subsampled as much as reqWidth and reqHeight allow.
+     *
+     * @param orientation exif orientation of the source. imageRect and cropRect are of the upright image
+     * @param imageRect   rect of the displayed image in view coordinates
+     * @param cropRect    rect to crop in view coordinates
+     * @param config      config of the decoded bitmap
+     * @param reqWidth    width the result is going to be scaled to, or 0 to decode in source resolution
+     * @param reqHeight   height the result is going to be scaled to, or 0 to decode in source resolution
+     * @param pool        pool to take the memory of the result from. can be null
+     * @return cropped bitmap as stored in the source, at least as big as the required size,
+     * or null if the source can not be decoded by region
+     **/
+    @Nullable
+    static Bitmap decodeRegion(ContentResolver resolver, Uri uri, int orientation, RectF imageRect, RectF cropRect,
+                               Bitmap.Config config, int reqWidth, int reqHeight, @Nullable BitmapPool pool) {
+        if (imageRect.isEmpty()) {
+            return null;
+        }
+        BitmapRegionDecoder decoder = newRegionDecoder(resolver, uri);
+        if (decoder == null) {
+            return null;
+        }
+        try {
+            boolean swapped = CropEngine.swapsDimensions(orientation);
+            int orientedWidth = swapped ? decoder.getHeight() : decoder.getWidth();
+            int orientedHeight = swapped ? decoder.getWidth() : decoder.getHeight();
+            Rect region = new Rect();
+            toSourceRect(orientedWidth, orientedHeight, imageRect, cropRect, region);
+            if (region.isEmpty()) {
+                return null;
+            }
+            int inSampleSize = reqWidth > 0 && reqHeight > 0
+                    ? CropEngine.calculateInSampleSize(region.width(), region.height(), reqWidth, reqHeight)
+                    : 1;
+            IntRect stored = new IntRect(region.left, region.top, region.right, region.bottom);
+            CropEngine.toStoredRect(orientation, decoder.getWidth(), decoder.getHeight(), stored, stored);
+            region.set(stored.left, stored.top, stored.right, stored.bottom);
+            return decodeRegion(decoder, region, inSampleSize, config, pool);
+        } finally {
+            decoder.recycle();
+        }
+    }
+
+    /**
+     * open a region decoder for the source image. the caller has to recycle it.
+     *
+     * @return decoder, or null if the source can not be decoded by region
+     **/
+    @Nullable
+    static BitmapRegionDecoder newRegionDecoder(ContentResolver resolver, Uri uri) {
+        InputStream stream = null;
+        try {
+            stream = resolver.openInputStream(uri);
+            if (stream == null) {
+                return null;
+            }
+            return BitmapRegionDecoder.newInstance(stream, false);
+        } catch (IOException e) {
+            return null;
+        } finally {
+            closeQuietly(stream);
+        }
+    }
+
+    /**
+     * open a region decoder over data, which it keeps a reference to instead of copying.
+     * several decoders can be opened over the same data. the caller has to recycle them.
+     *
+     * @return decoder, or null if data can not be decoded by region
+     **/
+    @Nullable
+    static BitmapRegionDecoder newRegionDecoder(byte[] data) {
+        try {
+            return BitmapRegionDecoder.newInstance(data, 0, data.length, true);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * read the whole source image into memory
+     *
+     * @return bytes of the source, or null if it can not be read
+     **/
+    @Nullable
+    static byte[] readBytes(ContentResolver resolver, Uri uri) {
+        InputStream stream = null;
+        try {
+            stream = resolver.openInputStream(uri);
+            if (stream == null) {
+                return null;
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream(BUFFER_SIZE);
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int read;
+            while ((read = stream.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        } catch (IOException e) {
+            return null;
+        } finally {
+            closeQuietly(stream);
+        }
+    }
+
+    /**
+     * decode region of the source subsampled by inSampleSize.
+     * a decoder decodes one region at a time, so threads which share it wait for each other.
+     *
+     * @param pool pool to take the memory of the result from. can be null
+     **/
+    @Nullable
+    static Bitmap decodeRegion(BitmapRegionDecoder decoder, Rect region, int inSampleSize,
+                               Bitmap.Config config, @Nullable BitmapPool pool) {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inSampleSize = inSampleSize;
+        options.inPreferredConfig = config;
+        if (pool != null) {
+            options.inMutable = true;
+            options.inBitmap = pool.getForDecode((region.width() + inSampleSize - 1) / inSampleSize,
+                    (region.height() + inSampleSize - 1) / inSampleSize, config, inSampleSize);
+        }
+        try {
+            return decoder.decodeRegion(region, options);
+        } catch (IllegalArgumentException e) {
+            if (options.inBitmap == null) {
+                throw e;
+            }
+            // inBitmap can not be reused for this region
+            pool.put(options.inBitmap);
+            options.inBitmap = null;
+            return decoder.decodeRegion(region, options);
+        }
+    }
+
+    /**
+     * read only the size of the source image
+     *
+     * @return options holding outWidth and outHeight, or null if the size can not be read
+     **/
+    @Nullable
+    static BitmapFactory.Options decodeBounds(ContentResolver resolver, Uri uri) {
+        InputStream stream = null;
+        try {
+            stream = resolver.openInputStream(uri);
+            if (stream == null) {
+                return null;
+            }
+            BitmapFactory.Options options = new BitmapFactory.Options();
+            options.inJustDecodeBounds = true;
+            BitmapFactory.decodeStream(stream, null, options);
+            return options.outWidth > 0 && options.outHeight > 0 ? options : null;
+        } catch (IOException e) {
+            return null;
+        } finally {
+            closeQuietly(stream);
+        }
+    }
+
+    /**
+     * decode the whole source image subsampled by inSampleSize
+     *
+     * @param pool pool to take the memory of the result from. can be null
+     * @return decoded bitmap, or null if the source can not be decoded
+     **/
+    @Nullable
+    static Bitmap decodeSampled(ContentResolver resolver, Uri uri, int sourceWidth, int sourceHeight,
+                                int inSampleSize, Bitmap.Config config, @Nullable BitmapPool pool) {
+        Bitmap inBitmap = null;
+        if (pool != null) {
+            // decoders round the subsampled size differently, so ask for the larger one
+            int width = (sourceWidth + inSampleSize - 1) / inSampleSize;
+            int height = (sourceHeight + inSampleSize - 1) / inSampleSize;
+            inBitmap = pool.getForDecode(width, height, config, inSampleSize);
+        }
+        Bitmap bitmap = decodeSampled(resolver, uri, inSampleSize, config, inBitmap, pool != null);
+        if (bitmap == null && inBitmap != null) {
+            pool.put(inBitmap);
+            bitmap = decodeSampled(resolver, uri, inSampleSize, config, null, true);
+        }
+        return bitmap;
+    }
+
+    @Nullable
+    private static Bitmap decodeSampled(ContentResolver resolver, Uri uri, int inSampleSize, Bitmap.Config config,
+                                        @Nullable Bitmap inBitmap, boolean mutable) {
+        InputStream stream = null;
+        try {
+            stream = resolver.openInputStream(uri);
+            if (stream == null) {
+                return null;
+            }
+            BitmapFactory.Options options = new BitmapFactory.Options();
+            options.inSampleSize = inSampleSize;
+            options.inPreferredConfig = config;
+            options.inMutable = mutable;
+            options.inBitmap = inBitmap;
+            return BitmapFactory.decodeStream(stream, null, options);
+        } catch (IOException e) {
+            return null;
+        } catch (IllegalArgumentException e) {
+            // inBitmap can not be reused for this image
+            return null;
+        } finally {
+            closeQuietly(stream);
+        }
+    }
+
+    /**
+     * map cropRect on the displayed image back to source pixel coordinates.
+     * the result is clamped to the source bounds.
+     **/
+    static void toSourceRect(int sourceWidth, int sourceHeight, RectF imageRect, RectF cropRect, Rect out) {
+        toSourceRect(sourceWidth, sourceHeight, imageRect, 0, cropRect, out);
+    }
+
+    /**
+     * same as {@link #toSourceRect(int, int, RectF, RectF, Rect)} for an image rotated by rotation degrees
+     * around the center of imageRect. the result is the bounds of the rotated cropRect.
+     **/
+    static void toSourceRect(int sourceWidth, int sourceHeight, RectF imageRect, float rotation, RectF cropRect, Rect out) {
+        IntRect region = new IntRect();
+        CropEngine.toSourceRect(sourceWidth, sourceHeight,
+                new FloatRect(imageRect.left, imageRect.top, imageRect.right, imageRect.bottom),
+                new FloatRect(cropRect.left, cropRect.top, cropRect.right, cropRect.bottom), rotation, region);
+        out.set(region.left, region.top, region.right, region.bottom);
+    }
+
+    static void closeQuietly(@Nullable Closeable closeable) {
+        if (closeable != null) {
+            try {
+                closeable.close();
+            } catch (IOException ignored) {
+                // nothing to do
+            }
+        }
+    }
+}
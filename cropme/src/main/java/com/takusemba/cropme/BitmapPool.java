@@ -0,0 +1,223 @@
+package com.takusemba.cropme;
+
+import android.graphics.Bitmap;
+import android.graphics.Color;
+import android.os.Build;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * BitmapPool
+ *
+ * keeps bitmaps which are no longer used so that later decodes and crops can reuse their memory
+ * instead of allocating new one. bitmaps are bucketed by their allocation size, and the total
+ * size is kept under the given budget by dropping the least recently pooled bitmaps.
+ *
+ * @author takusemba
+ * @since 17/10/2026
+ **/
+public class BitmapPool {
+
+    /**
+     * a pooled bitmap is not handed out for a request smaller than 1/MAX_SIZE_MULTIPLE of it
+     **/
+    private static final int MAX_SIZE_MULTIPLE = 4;
+
+    private final TreeMap<Integer, ArrayDeque<Bitmap>> buckets = new TreeMap<>();
+    private final ArrayDeque<Bitmap> pooledOrder = new ArrayDeque<>();
+    private final long maxBytes;
+    private long currentBytes;
+
+    private int hitCount;
+    private int missCount;
+    private int evictionCount;
+
+    /**
+     * @param maxBytes max bytes of bitmaps kept in this pool
+     **/
+    public BitmapPool(long maxBytes) {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("maxBytes must be greater than 0");
+        }
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * get a mutable bitmap of exactly the given size and config, erased to transparent
+     *
+     * @return pooled bitmap, or null if nothing in this pool fits
+     **/
+    @Nullable
+    public synchronized Bitmap get(int width, int height, @NonNull Bitmap.Config config) {
+        Bitmap bitmap = take(width, height, config);
+        if (bitmap != null) {
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT
+                    && (bitmap.getWidth() != width || bitmap.getHeight() != height || bitmap.getConfig() != config)) {
+                bitmap.reconfigure(width, height, config);
+            }
+            bitmap.eraseColor(Color.TRANSPARENT);
+        }
+        return bitmap;
+    }
+
+    /**
+     * put a bitmap which is no longer used. it is recycled if it can not be reused.
+     **/
+    public synchronized void put(@Nullable Bitmap bitmap) {
+        if (bitmap == null || bitmap.isRecycled()) {
+            return;
+        }
+        int size = sizeOf(bitmap);
+        if (!bitmap.isMutable() || bitmap.getConfig() == null || maxBytes < size
+                || bytesPerPixel(bitmap.getConfig()) == 0) {
+            bitmap.recycle();
+            return;
+        }
+        ArrayDeque<Bitmap> bucket = buckets.get(size);
+        if (bucket == null) {
+            bucket = new ArrayDeque<>();
+            buckets.put(size, bucket);
+        }
+        bucket.addLast(bitmap);
+        pooledOrder.addLast(bitmap);
+        currentBytes += size;
+        trimToSize(maxBytes);
+    }
+
+    /**
+     * recycle all pooled bitmaps
+     **/
+    public synchronized void clear() {
+        trimToSize(0);
+    }
+
+    /**
+     * number of requests which were served from this pool
+     **/
+    public synchronized int getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * number of requests which this pool could not serve
+     **/
+    public synchronized int getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * number of bitmaps recycled to keep this pool under its budget
+     **/
+    public synchronized int getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * bytes of bitmaps currently kept
+     **/
+    public synchronized long getCurrentSize() {
+        return currentBytes;
+    }
+
+    public long getMaxSize() {
+        return maxBytes;
+    }
+
+    /**
+     * get a bitmap which can be passed to {@link android.graphics.BitmapFactory.Options#inBitmap}
+     * to decode an image of the given size. the decoder resizes it by itself.
+     *
+     * @return pooled bitmap, or null if nothing in this pool can be reused for the decode
+     **/
+    @Nullable
+    synchronized Bitmap getForDecode(int width, int height, @NonNull Bitmap.Config config, int inSampleSize) {
+        // before KitKat, only a bitmap of the same size can be reused and only without subsampling
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.KITKAT && inSampleSize != 1) {
+            missCount++;
+            return null;
+        }
+        return take(width, height, config);
+    }
+
+    private Bitmap take(int width, int height, Bitmap.Config config) {
+        int required = width * height * bytesPerPixel(config);
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT) {
+            // any bitmap which is big enough can be reconfigured
+            Map.Entry<Integer, ArrayDeque<Bitmap>> entry = buckets.ceilingEntry(required);
+            if (0 < required && entry != null && entry.getKey() <= required * MAX_SIZE_MULTIPLE) {
+                Bitmap bitmap = entry.getValue().peekLast();
+                remove(entry.getValue(), bitmap, entry.getKey());
+                hitCount++;
+                return bitmap;
+            }
+        } else {
+            ArrayDeque<Bitmap> bucket = buckets.get(required);
+            if (0 < required && bucket != null) {
+                for (Bitmap bitmap : bucket) {
+                    if (bitmap.getWidth() == width && bitmap.getHeight() == height && bitmap.getConfig() == config) {
+                        remove(bucket, bitmap, required);
+                        hitCount++;
+                        return bitmap;
+                    }
+                }
+            }
+        }
+        missCount++;
+        return null;
+    }
+
+    private void remove(ArrayDeque<Bitmap> bucket, Bitmap bitmap, int size) {
+        bucket.removeFirstOccurrence(bitmap);
+        if (bucket.isEmpty()) {
+            buckets.remove(size);
+        }
+        pooledOrder.removeFirstOccurrence(bitmap);
+        currentBytes -= size;
+    }
+
+    private void trimToSize(long size) {
+        Iterator<Bitmap> iterator = pooledOrder.iterator();
+        while (size < currentBytes && iterator.hasNext()) {
+            Bitmap bitmap = iterator.next();
+            iterator.remove();
+            int bitmapSize = sizeOf(bitmap);
+            ArrayDeque<Bitmap> bucket = buckets.get(bitmapSize);
+            bucket.removeFirstOccurrence(bitmap);
+            if (bucket.isEmpty()) {
+                buckets.remove(bitmapSize);
+            }
+            currentBytes -= bitmapSize;
+            evictionCount++;
+            bitmap.recycle();
+        }
+    }
+
+    private static int sizeOf(Bitmap bitmap) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT) {
+            return bitmap.getAllocationByteCount();
+        }
+        return bitmap.getByteCount();
+    }
+
+    /**
+     * bytes per pixel of config, or 0 if bitmaps of config can not be pooled
+     **/
+    static int bytesPerPixel(Bitmap.Config config) {
+        switch (config) {
+            case ALPHA_8:
+                return 1;
+            case RGB_565:
+            case ARGB_4444:
+                return 2;
+            case ARGB_8888:
+                return 4;
+            default:
+                return 0;
+        }
+    }
+}
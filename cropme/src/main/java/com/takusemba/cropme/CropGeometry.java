@@ -0,0 +1,43 @@
+package com.takusemba.cropme;
+
+import android.graphics.Bitmap;
+import android.graphics.RectF;
+import android.net.Uri;
+import android.support.annotation.Nullable;
+
+/**
+ * CropGeometry
+ *
+ * snapshot of what is shown in {@link CropView}, taken on the main thread
+ * so that cropping can be done on any thread.
+ *
+ * @author takusemba
+ * @since 17/10/2026
+ **/
+class CropGeometry {
+
+    @Nullable
+    final Uri sourceUri;
+    @Nullable
+    final Bitmap bitmap;
+    final RectF imageRect;
+    /**
+     * degrees the image is rotated around the center of imageRect
+     **/
+    final float rotation;
+    final RectF cropRect;
+    /**
+     * exif orientation of both sourceUri and bitmap, which are stored as they are read from the source
+     **/
+    final int orientation;
+
+    CropGeometry(@Nullable Uri sourceUri, @Nullable Bitmap bitmap, int orientation, RectF imageRect,
+                 float rotation, RectF cropRect) {
+        this.sourceUri = sourceUri;
+        this.bitmap = bitmap;
+        this.orientation = orientation;
+        this.imageRect = new RectF(imageRect);
+        this.rotation = rotation;
+        this.cropRect = new RectF(cropRect);
+    }
+}
@@ -2,14 +2,20 @@ package com.takusemba.cropme;
 
 import android.content.Context;
 import android.content.res.Resources;
+import android.graphics.Bitmap;
 import android.graphics.Canvas;
 import android.graphics.Color;
+import android.graphics.Matrix;
 import android.graphics.Paint;
 import android.graphics.RectF;
+import android.graphics.drawable.Drawable;
 import android.support.v7.widget.AppCompatImageView;
 import android.util.AttributeSet;
 import android.util.DisplayMetrics;
 
+import com.takusemba.cropme.engine.CropEngine;
+import com.takusemba.cropme.engine.FloatRect;
+
 /**
  * CropImageView
  *
@@ -20,6 +26,24 @@ class CropImageView extends AppCompatImageView {
 
     private RectF resultRect;
 
+    private int sourceWidth;
+    private int sourceHeight;
+    private int orientation = CropEngine.ORIENTATION_NORMAL;
+    private int drawableOrientation = CropEngine.ORIENTATION_NORMAL;
+
+    private TileRenderer tileRenderer;
+
+    private final ImageTransform transform = new ImageTransform();
+    private final FloatRect fittedRect = new FloatRect();
+    private final Matrix drawMatrix = new Matrix();
+    private final Matrix tileMatrix = new Matrix();
+    private final Matrix inverseTileMatrix = new Matrix();
+    private final Matrix rotatedMatrix = new Matrix();
+    private final Matrix inverseRotatedMatrix = new Matrix();
+    private final RectF drawableRect = new RectF();
+    private final RectF imageRect = new RectF();
+    private final RectF visibleRect = new RectF();
+
     public CropImageView(Context context) {
         this(context, null);
 
@@ -31,30 +55,172 @@ class CropImageView extends AppCompatImageView {
 
     public CropImageView(Context context, AttributeSet attrs, int defStyleAttr) {
         super(context, attrs, defStyleAttr);
+        setScaleType(ScaleType.MATRIX);
+        transform.setOnTransformChangedListener(new ImageTransform.OnTransformChangedListener() {
+            @Override
+            public void onTransformChanged() {
+                invalidate();
+            }
+        });
     }
 
     /**
-     * set image size along with {@link CropImageView#resultRect}
+     * set base rect of {@link #transform} along with {@link CropImageView#resultRect}
      **/
     @Override
     protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
         super.onMeasure(widthMeasureSpec, heightMeasureSpec);
-        float height = getMeasuredHeight();
-        float width = getMeasuredWidth();
-        float widthScale = resultRect != null ? resultRect.width() / width : 1;
-        float heightScale = resultRect != null ? resultRect.height() / height : 1;
-        float scale = Math.max(widthScale, heightScale);
-        setMeasuredDimension((int) (width * scale), (int) (height * scale));
+        updateBaseRect(getMeasuredWidth(), getMeasuredHeight());
     }
 
-    void setResultRect(RectF resultRect) {
-        this.resultRect = resultRect;
+    /**
+     * update base rect of {@link #transform} after {@link CropImageView#resultRect} changed.
+     * the size of this view does not change, so this does not need a layout pass.
+     **/
+    void updateBaseRect() {
+        updateBaseRect(getWidth(), getHeight());
     }
 
+    private void updateBaseRect(float viewWidth, float viewHeight) {
+        float width;
+        float height;
+        if (sourceWidth > 0 && sourceHeight > 0) {
+            // pixels may not be decoded yet or may be subsampled, so follow the size of the source
+            width = sourceWidth;
+            height = sourceHeight;
+        } else if (getDrawable() != null) {
+            width = getDrawable().getIntrinsicWidth();
+            height = getDrawable().getIntrinsicHeight();
+        } else {
+            width = 0;
+            height = 0;
+        }
+        CropEngine.fitBaseRect(width, height, viewWidth, viewHeight,
+                resultRect != null ? resultRect.width() : 0, resultRect != null ? resultRect.height() : 0,
+                getAdjustViewBounds(), fittedRect);
+        transform.setBaseRect(fittedRect.left, fittedRect.top, fittedRect.right, fittedRect.bottom);
+    }
 
+    @Override
+    protected void onDraw(Canvas canvas) {
+        RectF baseRect = transform.getBaseRect();
+        if (baseRect.isEmpty()) {
+            return;
+        }
+        int saveCount = canvas.save();
+        canvas.concat(transform.getMatrix());
+        canvas.translate(baseRect.left, baseRect.top);
+        Drawable drawable = getDrawable();
+        if (drawable != null) {
+            drawableRect.set(drawable.getBounds());
+            if (!drawableRect.isEmpty()) {
+                // the drawable is stored as it is read from the source, so turn it upright and fit it to baseRect
+                boolean swapped = CropEngine.swapsDimensions(drawableOrientation);
+                ExifOrientation.setMatrix(drawableOrientation, drawableRect.width(), drawableRect.height(), drawMatrix);
+                drawMatrix.preTranslate(-drawableRect.left, -drawableRect.top);
+                drawMatrix.postScale(baseRect.width() / (swapped ? drawableRect.height() : drawableRect.width()),
+                        baseRect.height() / (swapped ? drawableRect.width() : drawableRect.height()));
+                int drawableSaveCount = canvas.save();
+                canvas.concat(drawMatrix);
+                drawable.draw(canvas);
+                canvas.restoreToCount(drawableSaveCount);
+            }
+        }
+        if (tileRenderer != null) {
+            // visible part of the view in the coordinates of the unscaled image
+            float scale = transform.getScale();
+            if (transform.getRotation() == 0) {
+                transform.getImageRect(imageRect);
+                visibleRect.set(-imageRect.left / scale, -imageRect.top / scale,
+                        (getWidth() - imageRect.left) / scale, (getHeight() - imageRect.top) / scale);
+            } else {
+                // bounds of the view turned back by the rotation of the image
+                rotatedMatrix.set(transform.getMatrix());
+                rotatedMatrix.preTranslate(baseRect.left, baseRect.top);
+                rotatedMatrix.invert(inverseRotatedMatrix);
+                visibleRect.set(0, 0, getWidth(), getHeight());
+                inverseRotatedMatrix.mapRect(visibleRect);
+            }
+            // tiles are decoded as stored in the source, so they are drawn through the orientation
+            float tileWidth = baseRect.width();
+            float tileHeight = baseRect.height();
+            if (orientation != CropEngine.ORIENTATION_NORMAL) {
+                if (CropEngine.swapsDimensions(orientation)) {
+                    tileWidth = baseRect.height();
+                    tileHeight = baseRect.width();
+                }
+                ExifOrientation.setMatrix(orientation, tileWidth, tileHeight, tileMatrix);
+                tileMatrix.invert(inverseTileMatrix);
+                inverseTileMatrix.mapRect(visibleRect);
+                canvas.concat(tileMatrix);
+            }
+            tileRenderer.draw(canvas, tileWidth, tileHeight, visibleRect, scale);
+        }
+        canvas.restoreToCount(saveCount);
+    }
+
+    ImageTransform getTransform() {
+        return transform;
+    }
+
+    /**
+     * draw tiles of the source on top of the drawable when zoomed in beyond its resolution.
+     * pass null to stop tiling.
+     **/
+    void setTileRenderer(TileRenderer tileRenderer) {
+        if (this.tileRenderer != null) {
+            this.tileRenderer.release();
+        }
+        this.tileRenderer = tileRenderer;
+        invalidate();
+    }
 
+    void setResultRect(RectF resultRect) {
+        this.resultRect = resultRect;
+    }
 
+    /**
+     * lay out with the size of the source image instead of the size of the drawable.
+     * pass 0 to follow the drawable again.
+     *
+     * @param sourceWidth  width of the upright source
+     * @param sourceHeight height of the upright source
+     * @param orientation  exif orientation which turns the drawable and tiles upright
+     **/
+    void setSource(int sourceWidth, int sourceHeight, int orientation) {
+        this.sourceWidth = sourceWidth;
+        this.sourceHeight = sourceHeight;
+        this.orientation = orientation;
+        this.drawableOrientation = orientation;
+    }
 
+    /**
+     * show bitmap which is stored turned by orientation. it is fit to the same rect as the source,
+     * so replacing it with a sharper one does not move the image.
+     *
+     * @param orientation exif orientation which turns bitmap upright
+     **/
+    void setImageBitmap(Bitmap bitmap, int orientation) {
+        super.setImageBitmap(bitmap);
+        // setting the drawable resets the orientation, so it is set after
+        this.drawableOrientation = orientation;
+    }
 
+    /**
+     * show bitmap as it is, whatever orientation the previous image had
+     **/
+    @Override
+    public void setImageBitmap(Bitmap bitmap) {
+        this.drawableOrientation = CropEngine.ORIENTATION_NORMAL;
+        super.setImageBitmap(bitmap);
+    }
 
+    /**
+     * show drawable as it is, whatever orientation the previous image had
+     **/
+    @Override
+    public void setImageDrawable(Drawable drawable) {
+        this.drawableOrientation = CropEngine.ORIENTATION_NORMAL;
+        super.setImageDrawable(drawable);
+    }
 }
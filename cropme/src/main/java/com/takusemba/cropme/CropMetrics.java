@@ -0,0 +1,73 @@
+package com.takusemba.cropme;
+
+import android.graphics.Bitmap;
+
+/**
+ * CropMetrics
+ *
+ * timings of one crop split into its phases. it is filled by the crop on a worker thread
+ * and handed to {@link CropMetricsListener} on the main thread when the crop is done.
+ *
+ * @author takusemba
+ * @since 17/10/2026
+ **/
+public final class CropMetrics {
+
+    private long decodeNanos;
+    private long transformNanos;
+    private long encodeNanos;
+    private long bitmapBytes;
+    private long peakBitmapBytes;
+
+    CropMetrics() {
+    }
+
+    /**
+     * time spent decoding the region from the source. 0 if the displayed bitmap is cropped instead.
+     **/
+    public long getDecodeNanos() {
+        return decodeNanos;
+    }
+
+    /**
+     * time spent cropping, turning and scaling pixels
+     **/
+    public long getTransformNanos() {
+        return transformNanos;
+    }
+
+    /**
+     * time spent encoding the result. 0 unless the crop is written by cropTo.
+     **/
+    public long getEncodeNanos() {
+        return encodeNanos;
+    }
+
+    /**
+     * the most bytes of pixels which the crop held at the same time. the displayed bitmap is not included.
+     **/
+    public long getPeakBitmapBytes() {
+        return peakBitmapBytes;
+    }
+
+    void addDecodeNanos(long nanos) {
+        decodeNanos += nanos;
+    }
+
+    void addTransformNanos(long nanos) {
+        transformNanos += nanos;
+    }
+
+    void addEncodeNanos(long nanos) {
+        encodeNanos += nanos;
+    }
+
+    void onAllocated(Bitmap bitmap) {
+        bitmapBytes += bitmap.getByteCount();
+        peakBitmapBytes = Math.max(peakBitmapBytes, bitmapBytes);
+    }
+
+    void onReleased(Bitmap bitmap) {
+        bitmapBytes -= bitmap.getByteCount();
+    }
+}
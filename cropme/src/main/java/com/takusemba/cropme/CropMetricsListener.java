@@ -0,0 +1,28 @@
+package com.takusemba.cropme;
+
+/**
+ * CropMetricsListener
+ *
+ * listener which receives timings and memory of what {@link CropView} does, so they can be sent to telemetry.
+ * every method is called on the main thread. nothing is measured while no listener is set.
+ *
+ * @author takusemba
+ * @since 17/10/2026
+ **/
+public interface CropMetricsListener {
+
+    /**
+     * called when an image set by {@link CropView#setUri(android.net.Uri)} is decoded for display
+     **/
+    void onDecoded(DecodeMetrics metrics);
+
+    /**
+     * called when a crop or cropTo is finished, whether or not it succeeded
+     **/
+    void onCropped(CropMetrics metrics);
+
+    /**
+     * called when a touch gesture on {@link CropView} ends
+     **/
+    void onGestureEnded(GestureMetrics metrics);
+}
@@ -5,17 +5,17 @@ import android.content.res.Resources;
 import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.Paint;
-import android.graphics.PorterDuff;
-import android.graphics.PorterDuffXfermode;
 import android.graphics.RectF;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.support.v4.content.ContextCompat;
 import android.util.AttributeSet;
 import android.util.DisplayMetrics;
-import android.view.View;
 import android.widget.FrameLayout;
 
+import com.takusemba.cropme.engine.CropEngine;
+import com.takusemba.cropme.engine.FloatRect;
+
 /**
  * CropOverlayView
  *
@@ -29,7 +29,15 @@ class CropOverlayView extends FrameLayout {
     private static final int CORNER_RECT_SIZE_DP = 50;
     private final Paint background = new Paint();
     private final Paint border = new Paint();
-    private final Paint cropPaint = new Paint();
+
+    /**
+     * 4 horizontal and 4 vertical lines of the grid, drawn in a single call
+     **/
+    private final float[] gridLines = new float[8 * 4];
+    private final float[] cornerLines = new float[8 * 4];
+    private final RectF dirtyRect = new RectF();
+
+    private GestureProfiler profiler;
 
     private RectF resultRect;
     private int backgroundAlpha;
@@ -45,10 +53,12 @@ class CropOverlayView extends FrameLayout {
     private float leftOffset;
     private float rightOffset;
 
-    private RectF leftTopCorner;
-    private RectF rightTopCorner;
-    private RectF leftBottomCorner;
-    private RectF rightBottomCorner;
+    private final RectF leftTopCorner = new RectF();
+    private final RectF rightTopCorner = new RectF();
+    private final RectF leftBottomCorner = new RectF();
+    private final RectF rightBottomCorner = new RectF();
+    private final FloatRect engineResultRect = new FloatRect();
+    private final FloatRect engineCornerRect = new FloatRect();
 
     private boolean use_adjustable_crop_box = false;
 
@@ -94,34 +104,50 @@ class CropOverlayView extends FrameLayout {
 
     private void init() {
         setWillNotDraw(false);
-        setLayerType(View.LAYER_TYPE_HARDWARE, null);
-        cropPaint.setXfermode(new PorterDuffXfermode(PorterDuff.Mode.CLEAR));
+        background.setColor(ContextCompat.getColor(getContext(), android.R.color.black));
+        border.setColor(ContextCompat.getColor(getContext(), R.color.light_white));
         border.setStrokeWidth(BORDER_WIDTH);
     }
 
+    void setProfiler(GestureProfiler profiler) {
+        this.profiler = profiler;
+    }
+
     @Override
     protected void onDraw(Canvas canvas) {
-        super.onDraw(canvas);
+        if (profiler == null) {
+            drawOverlay(canvas);
+            return;
+        }
+        long start = System.nanoTime();
+        drawOverlay(canvas);
+        profiler.addSection(GestureProfiler.SECTION_OVERLAY_DRAW, System.nanoTime() - start);
+    }
 
-        background.setColor(ContextCompat.getColor(getContext(), android.R.color.black));
-        background.setAlpha(backgroundAlpha);
-        border.setColor(ContextCompat.getColor(getContext(), R.color.light_white));
+    private void drawOverlay(Canvas canvas) {
+        super.onDraw(canvas);
 
-        canvas.drawRect(0, 0, getWidth(), getHeight(), background);
-        canvas.drawRect(resultRect, cropPaint);
+        // draw the scrim around resultRect, so nothing has to be cleared in an offscreen layer
+        canvas.drawRect(0, 0, getWidth(), resultRect.top, background);
+        canvas.drawRect(0, resultRect.bottom, getWidth(), getHeight(), background);
+        canvas.drawRect(0, resultRect.top, resultRect.left, resultRect.bottom, background);
+        canvas.drawRect(resultRect.right, resultRect.top, getWidth(), resultRect.bottom, background);
 
         if (withBorder) {
-            float borderHeight = resultRect.height() / 3;
-            canvas.drawLine(resultRect.left, resultRect.top, resultRect.right, resultRect.top, border);
-            canvas.drawLine(resultRect.left, resultRect.top + borderHeight, resultRect.right, resultRect.top + borderHeight, border);
-            canvas.drawLine(resultRect.left, resultRect.top + borderHeight * 2, resultRect.right, resultRect.top + borderHeight * 2, border);
-            canvas.drawLine(resultRect.left, resultRect.bottom, resultRect.right, resultRect.bottom, border);
-
             float borderWidth = resultRect.width() / 3;
-            canvas.drawLine(resultRect.left, resultRect.top, resultRect.left, resultRect.bottom, border);
-            canvas.drawLine(resultRect.left + borderWidth, resultRect.top, resultRect.left + borderWidth, resultRect.bottom, border);
-            canvas.drawLine(resultRect.left + borderWidth * 2, resultRect.top, resultRect.left + borderWidth * 2, resultRect.bottom, border);
-            canvas.drawLine(resultRect.right, resultRect.top, resultRect.right, resultRect.bottom, border);
+            float borderHeight = resultRect.height() / 3;
+            for (int i = 0; i <= 3; i++) {
+                int offset = i * 8;
+                gridLines[offset] = resultRect.left;
+                gridLines[offset + 1] = resultRect.top + borderHeight * i;
+                gridLines[offset + 2] = resultRect.right;
+                gridLines[offset + 3] = resultRect.top + borderHeight * i;
+                gridLines[offset + 4] = resultRect.left + borderWidth * i;
+                gridLines[offset + 5] = resultRect.top;
+                gridLines[offset + 6] = resultRect.left + borderWidth * i;
+                gridLines[offset + 7] = resultRect.bottom;
+            }
+            canvas.drawLines(gridLines, border);
         }
 
         if (use_adjustable_crop_box) {
@@ -137,19 +163,27 @@ class CropOverlayView extends FrameLayout {
         float relRightOffset = rightTopCorner.right - rightOffset;
         float relBottomOffset = leftBottomCorner.bottom - bottomOffset;
 
-
         /* Top left corner */
-        canvas.drawLine(relLeftOffset,relTopOffset,relLeftOffset + lineLength,relTopOffset,paint1);
-        canvas.drawLine(relLeftOffset,relTopOffset,relLeftOffset,relTopOffset + lineLength,paint1);
+        setLine(0, relLeftOffset, relTopOffset, relLeftOffset + lineLength, relTopOffset);
+        setLine(1, relLeftOffset, relTopOffset, relLeftOffset, relTopOffset + lineLength);
         /* Top right corner */
-        canvas.drawLine(relRightOffset - lineLength,relTopOffset,relRightOffset,relTopOffset,paint1);
-        canvas.drawLine(relRightOffset,relTopOffset,relRightOffset,relTopOffset + lineLength, paint1);
+        setLine(2, relRightOffset - lineLength, relTopOffset, relRightOffset, relTopOffset);
+        setLine(3, relRightOffset, relTopOffset, relRightOffset, relTopOffset + lineLength);
         /* Bottom left corner */
-        canvas.drawLine(relLeftOffset,relBottomOffset,relLeftOffset + lineLength,relBottomOffset,paint1);
-        canvas.drawLine(relLeftOffset,relBottomOffset,relLeftOffset,relBottomOffset - lineLength, paint1);
+        setLine(4, relLeftOffset, relBottomOffset, relLeftOffset + lineLength, relBottomOffset);
+        setLine(5, relLeftOffset, relBottomOffset, relLeftOffset, relBottomOffset - lineLength);
         /* Bottom right corner */
-        canvas.drawLine(relRightOffset - lineLength,relBottomOffset,relRightOffset,relBottomOffset,paint1);
-        canvas.drawLine(relRightOffset,relBottomOffset,relRightOffset,relBottomOffset - lineLength, paint1);
+        setLine(6, relRightOffset - lineLength, relBottomOffset, relRightOffset, relBottomOffset);
+        setLine(7, relRightOffset, relBottomOffset, relRightOffset, relBottomOffset - lineLength);
+        canvas.drawLines(cornerLines, paint1);
+    }
+
+    private void setLine(int index, float startX, float startY, float stopX, float stopY) {
+        int offset = index * 4;
+        cornerLines[offset] = startX;
+        cornerLines[offset + 1] = startY;
+        cornerLines[offset + 2] = stopX;
+        cornerLines[offset + 3] = stopY;
     }
 
     private void drawCornerRects(Canvas canvas){
@@ -161,20 +195,38 @@ class CropOverlayView extends FrameLayout {
     }
 
     void setCornerRect(RectF resultRect){
-        leftTopCorner = new RectF(resultRect.left,resultRect.top,resultRect.left + cornerDragSize, resultRect.top + cornerDragSize);
-        leftBottomCorner = new RectF(resultRect.left,resultRect.bottom - cornerDragSize,resultRect.left + cornerDragSize,resultRect.bottom);
-        rightTopCorner = new RectF(
-                resultRect.right - cornerDragSize,
-                resultRect.top,
-                resultRect.right,
-                resultRect.top + cornerDragSize);
-        rightBottomCorner = new RectF(resultRect.right - cornerDragSize,resultRect.bottom - cornerDragSize,resultRect.right,resultRect.bottom);
+        engineResultRect.set(resultRect.left, resultRect.top, resultRect.right, resultRect.bottom);
+        setCornerRect(CropEngine.CORNER_TOP_LEFT, leftTopCorner);
+        setCornerRect(CropEngine.CORNER_TOP_RIGHT, rightTopCorner);
+        setCornerRect(CropEngine.CORNER_BOTTOM_LEFT, leftBottomCorner);
+        setCornerRect(CropEngine.CORNER_BOTTOM_RIGHT, rightBottomCorner);
+    }
+
+    private void setCornerRect(int corner, RectF out) {
+        CropEngine.cornerRect(engineResultRect, cornerDragSize, corner, engineCornerRect);
+        out.set(engineCornerRect.left, engineCornerRect.top, engineCornerRect.right, engineCornerRect.bottom);
     }
 
     void setAttrs(RectF resultRect, int backgroundAlpha, boolean withBorder) {
         this.resultRect = resultRect;
         this.backgroundAlpha = backgroundAlpha;
         this.withBorder = withBorder;
+        background.setAlpha(backgroundAlpha);
+        setCornerRect(resultRect);
+        invalidate();
+    }
+
+    /**
+     * redraw only the part which changed when {@link #resultRect} moved from previous
+     **/
+    void invalidateResultRect(RectF previous) {
+        dirtyRect.set(previous);
+        dirtyRect.union(resultRect);
+        // borders are stroked on the edges of resultRect
+        dirtyRect.inset(-BORDER_WIDTH, -BORDER_WIDTH);
+        setCornerRect(resultRect);
+        invalidate((int) Math.floor(dirtyRect.left), (int) Math.floor(dirtyRect.top),
+                (int) Math.ceil(dirtyRect.right), (int) Math.ceil(dirtyRect.bottom));
     }
 
     public static float convertDpToPixel(float dp, Context context){
@@ -0,0 +1,78 @@
+package com.takusemba.cropme;
+
+import android.graphics.Bitmap;
+import android.support.annotation.NonNull;
+
+/**
+ * CropRequest
+ *
+ * @author takusemba
+ * @since 17/10/2026
+ **/
+public final class CropRequest {
+
+    private final Bitmap.Config config;
+    private final int outputWidth;
+    private final int outputHeight;
+
+    private CropRequest(Builder builder) {
+        this.config = builder.config;
+        this.outputWidth = builder.outputWidth;
+        this.outputHeight = builder.outputHeight;
+    }
+
+    /**
+     * config of the result bitmap when it is decoded from the source
+     **/
+    @NonNull
+    public Bitmap.Config getConfig() {
+        return config;
+    }
+
+    /**
+     * width of the result bitmap, or 0 if the result is in the resolution of the crop box
+     **/
+    public int getOutputWidth() {
+        return outputWidth;
+    }
+
+    /**
+     * height of the result bitmap, or 0 if the result is in the resolution of the crop box
+     **/
+    public int getOutputHeight() {
+        return outputHeight;
+    }
+
+    boolean hasOutputSize() {
+        return outputWidth > 0;
+    }
+
+    public static final class Builder {
+
+        private Bitmap.Config config = Bitmap.Config.ARGB_8888;
+        private int outputWidth;
+        private int outputHeight;
+
+        public Builder setConfig(@NonNull Bitmap.Config config) {
+            this.config = config;
+            return this;
+        }
+
+        /**
+         * scale the crop box to exactly outputWidth x outputHeight.
+         * the source is decoded only as large as this size needs.
+         **/
+        public Builder setOutputSize(int outputWidth, int outputHeight) {
+            if (outputWidth <= 0 || outputHeight <= 0) {
+                throw new IllegalArgumentException("outputWidth and outputHeight must be greater than 0");
+            }
+            this.outputWidth = outputWidth;
+            this.outputHeight = outputHeight;
+            return this;
+        }
+
+        public CropRequest build() {
+            return new CropRequest(this);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.takusemba.cropme;
+
+import android.graphics.RectF;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * CropRestriction
+ *
+ * the crop box shared by {@link CropView}, its animators and {@link CropOverlayView}.
+ * the rect is updated in place, and resizing keeps width / height within [minRatio, maxRatio].
+ *
+ * @author takusemba
+ * @since 17/10/2026
+ **/
+class CropRestriction {
+
+    /**
+     * listener which is called when the crop box is resized
+     **/
+    interface OnRestrictionChangedListener {
+
+        /**
+         * @param previous rect before the change. only valid while this is called
+         **/
+        void onRestrictionChanged(RectF previous);
+    }
+
+    private final RectF rect = new RectF();
+    private final RectF previous = new RectF();
+    private final List<OnRestrictionChangedListener> listeners = new ArrayList<>();
+
+    private final float minRatio;
+    private final float maxRatio;
+
+    /**
+     * @param minRatio min width / height of the crop box when it is resized
+     * @param maxRatio max width / height of the crop box when it is resized
+     **/
+    CropRestriction(float minRatio, float maxRatio) {
+        if (minRatio <= 0 || maxRatio < minRatio) {
+            throw new IllegalArgumentException("minRatio must be greater than 0 and not greater than maxRatio");
+        }
+        this.minRatio = minRatio;
+        this.maxRatio = maxRatio;
+    }
+
+    /**
+     * rect of the crop box. must not be modified except through this class.
+     **/
+    RectF getRect() {
+        return rect;
+    }
+
+    void addOnRestrictionChangedListener(OnRestrictionChangedListener listener) {
+        listeners.add(listener);
+    }
+
+    void set(float left, float top, float right, float bottom) {
+        previous.set(rect);
+        rect.set(left, top, right, bottom);
+        notifyChanged();
+    }
+
+    /**
+     * move the top edge as close to top as the ratio constraints and minTop allow
+     **/
+    void resizeTop(float top, float minTop) {
+        float newTop = Math.max(minTop, rect.bottom - constrainHeight(rect.bottom - top));
+        if (newTop == rect.top) {
+            return;
+        }
+        previous.set(rect);
+        rect.top = newTop;
+        notifyChanged();
+    }
+
+    /**
+     * move the bottom edge as close to bottom as the ratio constraints and maxBottom allow
+     **/
+    void resizeBottom(float bottom, float maxBottom) {
+        float newBottom = Math.min(maxBottom, rect.top + constrainHeight(bottom - rect.top));
+        if (newBottom == rect.bottom) {
+            return;
+        }
+        previous.set(rect);
+        rect.bottom = newBottom;
+        notifyChanged();
+    }
+
+    /**
+     * clamp height to the ratio constraints. a crop box which already breaks them
+     * is not forced back, but can not be resized further away from them.
+     **/
+    private float constrainHeight(float height) {
+        float minHeight = Math.min(rect.width() / maxRatio, rect.height());
+        float maxHeight = Math.max(rect.width() / minRatio, rect.height());
+        return Math.max(minHeight, Math.min(maxHeight, height));
+    }
+
+    private void notifyChanged() {
+        for (int i = 0; i < listeners.size(); i++) {
+            listeners.get(i).onRestrictionChanged(previous);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.takusemba.cropme;
+
+import android.graphics.Bitmap;
+import android.graphics.RectF;
+import android.support.annotation.NonNull;
+
+/**
+ * CropSpec
+ *
+ * one output of {@link Croppable#cropRegions(java.util.List, java.util.concurrent.Executor, OnCropRegionsListener)}.
+ * the rect is normalized to the source image shown upright, so (0, 0, 1, 1) is the whole image.
+ *
+ * @author takusemba
+ * @since 17/10/2026
+ **/
+public final class CropSpec {
+
+    final RectF rect;
+    final int outputWidth;
+    final int outputHeight;
+    final Bitmap.Config config;
+
+    private CropSpec(Builder builder) {
+        this.rect = new RectF(builder.rect);
+        this.outputWidth = builder.outputWidth;
+        this.outputHeight = builder.outputHeight;
+        this.config = builder.config;
+    }
+
+    /**
+     * rect to crop, normalized to the source image
+     **/
+    @NonNull
+    public RectF getRect() {
+        return new RectF(rect);
+    }
+
+    public int getOutputWidth() {
+        return outputWidth;
+    }
+
+    public int getOutputHeight() {
+        return outputHeight;
+    }
+
+    /**
+     * config of the result bitmap
+     **/
+    @NonNull
+    public Bitmap.Config getConfig() {
+        return config;
+    }
+
+    public static final class Builder {
+
+        private final RectF rect;
+        private final int outputWidth;
+        private final int outputHeight;
+        private Bitmap.Config config = Bitmap.Config.ARGB_8888;
+
+        /**
+         * @param rect         rect to crop, normalized to the source image
+         * @param outputWidth  width of the result bitmap
+         * @param outputHeight height of the result bitmap
+         **/
+        public Builder(@NonNull RectF rect, int outputWidth, int outputHeight) {
+            this.rect = new RectF(rect);
+            this.outputWidth = outputWidth;
+            this.outputHeight = outputHeight;
+        }
+
+        public Builder setConfig(@NonNull Bitmap.Config config) {
+            this.config = config;
+            return this;
+        }
+
+        public CropSpec build() {
+            if (rect.isEmpty() || rect.left < 0 || rect.top < 0 || 1 < rect.right || 1 < rect.bottom) {
+                throw new IllegalArgumentException("rect must be a non empty rect inside of (0, 0, 1, 1)");
+            }
+            if (outputWidth <= 0 || outputHeight <= 0) {
+                throw new IllegalArgumentException("outputWidth and outputHeight must be greater than 0");
+            }
+            return new CropSpec(this);
+        }
+    }
+}
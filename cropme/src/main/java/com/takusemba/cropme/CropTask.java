@@ -0,0 +1,31 @@
+package com.takusemba.cropme;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * CropTask
+ *
+ * @author takusemba
+ * @since 17/10/2026
+ **/
+public final class CropTask {
+
+    private final AtomicBoolean cancelled = new AtomicBoolean(false);
+
+    CropTask() {
+    }
+
+    /**
+     * cancel cropping. the listener will not be called once this is called.
+     **/
+    public void cancel() {
+        cancelled.set(true);
+    }
+
+    /**
+     * true if {@link #cancel()} is already called, false otherwise
+     **/
+    public boolean isCancelled() {
+        return cancelled.get();
+    }
+}
@@ -1,17 +1,25 @@
 package com.takusemba.cropme;
 
 import android.annotation.SuppressLint;
+import android.content.ContentResolver;
 import android.content.Context;
 import android.content.res.TypedArray;
 import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
 import android.graphics.Rect;
 import android.graphics.RectF;
 import android.graphics.drawable.BitmapDrawable;
 import android.graphics.drawable.Drawable;
 import android.net.Uri;
+import android.os.AsyncTask;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.util.AttributeSet;
+import android.util.DisplayMetrics;
+import android.view.Choreographer;
 import android.view.Gravity;
 import android.view.MotionEvent;
 import android.view.View;
@@ -20,6 +28,15 @@ import android.view.ViewTreeObserver;
 import android.widget.FrameLayout;
 import android.widget.ImageView;
 
+import com.takusemba.cropme.engine.CropEngine;
+
+import java.io.File;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executor;
+
 import static com.takusemba.cropme.CropView.CORNER_DRAGGED.BOTTOM_LEFT;
 import static com.takusemba.cropme.CropView.CORNER_DRAGGED.BOTTOM_RIGHT;
 import static com.takusemba.cropme.CropView.CORNER_DRAGGED.NONE;
@@ -46,6 +63,20 @@ public class CropView extends FrameLayout implements Croppable {
     private static final int DEFAULT_MAX_SCALE = 2;
     private static final int MIN_SCALE = 1;
     private static final int MAX_SCALE = 5;
+    private static final int MAX_TILED_SCALE = 20;
+
+    /**
+     * part of the heap which tiles can use
+     **/
+    private static final int TILE_CACHE_DIVISOR = 8;
+
+    /**
+     * subsampled versions of a jpeg which are shown while it is decoded in display size
+     **/
+    private static final int[] PROGRESSIVE_SAMPLE_SIZES = {8, 4};
+
+    private static final float DEFAULT_MIN_ASPECT_RATIO = 1f;
+    private static final float DEFAULT_MAX_ASPECT_RATIO = 16f / 9f;
 
     private static final float DEFAULT_BACKGROUND_ALPHA = 0.8f;
     private static final float COLOR_DENSITY = 255;
@@ -53,13 +84,18 @@ public class CropView extends FrameLayout implements Croppable {
     private static final boolean DEFAULT_WITH_BORDER = true;
     private static final boolean DEFAULT_ADJUST_IMAGE_BOUNDS = true;
     private static final boolean DEFAULT_USE_ADJUSTABLE_CROPBOX = false;
+    private static final boolean DEFAULT_TILED_ZOOM = false;
+    private static final boolean DEFAULT_ROTATABLE = false;
+
+    private static final CropRequest DEFAULT_CROP_REQUEST = new CropRequest.Builder().build();
 
-    private MoveAnimator horizontalAnimator;
-    private MoveAnimator verticalAnimator;
-    private ScaleAnimator scaleAnimator;
+    private TransformAnimator transformAnimator;
 
     private ActionDetector actionDetector;
 
+    private CropImageView imageView;
+    private CropOverlayView overlayView;
+
     private Context mContext;
 
     private boolean updateRestriction = false;
@@ -77,12 +113,46 @@ public class CropView extends FrameLayout implements Croppable {
     private float percentWidth;
     private float percentHeight;
     private int maxScale;
-    private RectF restriction;
+    private CropRestriction restriction;
     private int backgroundAlpha;
     private boolean withBorder;
     private boolean adjustBounds;
     private Drawable placeholderImage;
     private boolean use_adjustable_crop_box;
+    private boolean tiledZoom;
+    private boolean rotatable;
+
+    @Nullable
+    private Uri sourceUri;
+    private int sourceOrientation = CropEngine.ORIENTATION_NORMAL;
+
+    @Nullable
+    private CropMetricsListener metricsListener;
+    @Nullable
+    private FrameMonitor frameMonitor;
+    @Nullable
+    private GestureProfiler gestureProfiler;
+
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    private Executor decodeExecutor = AsyncTask.THREAD_POOL_EXECUTOR;
+    private DecodePolicy decodePolicy;
+    private volatile int currentDecodeId;
+
+    @Nullable
+    private BitmapPool bitmapPool;
+    /**
+     * bitmap decoded by this view, which can go back to {@link #bitmapPool} once it is replaced
+     **/
+    @Nullable
+    private Bitmap decodedBitmap;
+    /**
+     * bitmap given by {@link #setUri(Uri, Bitmap)}, which belongs to the caller
+     **/
+    @Nullable
+    private Bitmap previewBitmap;
+    private final List<Bitmap> retiredBitmaps = new ArrayList<>();
+    private int runningCrops;
 
     public CropView(@NonNull Context context) {
         this(context, null);
@@ -109,8 +179,14 @@ public class CropView extends FrameLayout implements Croppable {
             throw new IllegalArgumentException("sr_result_height must be set from 0% to 100%");
         }
 
+        tiledZoom = a.getBoolean(R.styleable.CropView_cropme_tiled_zoom, DEFAULT_TILED_ZOOM);
+
         maxScale = a.getInt(R.styleable.CropView_cropme_max_scale, DEFAULT_MAX_SCALE);
-        if (maxScale < MIN_SCALE || MAX_SCALE < maxScale) {
+        if (tiledZoom) {
+            if (maxScale < MIN_SCALE || MAX_TILED_SCALE < maxScale) {
+                throw new IllegalArgumentException("sr_max_scale must be set from 1 to 20 with tiled zoom");
+            }
+        } else if (maxScale < MIN_SCALE || MAX_SCALE < maxScale) {
             throw new IllegalArgumentException("sr_max_scale must be set from 1 to 5");
         }
 
@@ -124,10 +200,21 @@ public class CropView extends FrameLayout implements Croppable {
         adjustBounds = a.getBoolean(R.styleable.CropView_cropme_adjust_view_bounds,DEFAULT_ADJUST_IMAGE_BOUNDS);
         use_adjustable_crop_box = a.getBoolean(R.styleable.CropView_cropme_adjustable_crop_box,DEFAULT_USE_ADJUSTABLE_CROPBOX);
 
+        rotatable = a.getBoolean(R.styleable.CropView_cropme_rotatable, DEFAULT_ROTATABLE);
+
         placeholderImage = a.getDrawable(R.styleable.CropView_cropme_set_image_drawable);
 
+        float minAspectRatio = a.getFloat(R.styleable.CropView_cropme_min_aspect_ratio, DEFAULT_MIN_ASPECT_RATIO);
+        float maxAspectRatio = a.getFloat(R.styleable.CropView_cropme_max_aspect_ratio, DEFAULT_MAX_ASPECT_RATIO);
+        if (minAspectRatio <= 0 || maxAspectRatio < minAspectRatio) {
+            throw new IllegalArgumentException("cropme_min_aspect_ratio must be greater than 0 and not greater than cropme_max_aspect_ratio");
+        }
+        restriction = new CropRestriction(minAspectRatio, maxAspectRatio);
+
         a.recycle();
 
+        decodePolicy = DecodePolicy.forDevice(context);
+
         init();
     }
 
@@ -139,24 +226,29 @@ public class CropView extends FrameLayout implements Croppable {
         getViewTreeObserver().addOnPreDrawListener(new ViewTreeObserver.OnPreDrawListener() {
             @Override
             public boolean onPreDraw() {
-
-                CropImageView target = findViewById(R.id.cropme_image_view);
-                CropOverlayView overlayView = findViewById(R.id.cropme_overlay);
-
                 float resultWidth = getWidth() * percentWidth;
                 float resultHeight = getHeight() * percentHeight;
 
-                restriction = new RectF((getWidth() - resultWidth) / 2f, (getHeight() - resultHeight) / 2f,
+                restriction.set((getWidth() - resultWidth) / 2f, (getHeight() - resultHeight) / 2f,
                         (getWidth() + resultWidth) / 2f, (getHeight() + resultHeight) / 2f);
 
-                horizontalAnimator = new HorizontalMoveAnimatorImpl(target, restriction, maxScale);
-                verticalAnimator = new VerticalMoveAnimatorImpl(target, restriction, maxScale);
-                scaleAnimator = new ScaleAnimatorImpl(target, maxScale);
+                ImageTransform transform = imageView.getTransform();
+                transformAnimator = new TransformAnimatorImpl(transform, restriction.getRect(), maxScale);
+                transformAnimator.setProfiler(gestureProfiler);
+
+                imageView.setAdjustViewBounds(adjustBounds);
+                if (placeholderImage != null) imageView.setImageDrawable(placeholderImage);
+                imageView.setResultRect(restriction.getRect());
+                overlayView.setAttrs(restriction.getRect(), backgroundAlpha, withBorder);
 
-                target.setAdjustViewBounds(adjustBounds);
-                if (placeholderImage != null) target.setImageDrawable(placeholderImage);
-                target.setResultRect(restriction);
-                overlayView.setAttrs(restriction, backgroundAlpha, withBorder);
+                // animators read the shared rect, so resizing only has to redraw
+                restriction.addOnRestrictionChangedListener(new CropRestriction.OnRestrictionChangedListener() {
+                    @Override
+                    public void onRestrictionChanged(RectF previous) {
+                        imageView.updateBaseRect();
+                        overlayView.invalidateResultRect(previous);
+                    }
+                });
 
                 getViewTreeObserver().removeOnPreDrawListener(this);
                 return true;
@@ -168,29 +260,42 @@ public class CropView extends FrameLayout implements Croppable {
         actionDetector = new ActionDetector(getContext(), new ActionListener() {
 
             @Override
-            public void onScaled(float scale) {
-                scaleAnimator.scale(scale);
+            public void onScaled(float scale, float focusX, float focusY) {
+                transformAnimator.scale(scale, focusX, focusY);
             }
 
             @Override
             public void onScaleEnded() {
-                scaleAnimator.reScaleIfNeeded();
+                transformAnimator.settle();
+            }
+
+            @Override
+            public void onRotated(float degrees, float focusX, float focusY) {
+                if (rotatable) {
+                    imageView.getTransform().rotateBy(degrees, focusX, focusY);
+                }
+            }
+
+            @Override
+            public void onRotateEnded() {
+                if (rotatable) {
+                    // the image may have to grow to cover the corners of the crop box
+                    transformAnimator.settle();
+                }
             }
 
             @Override
             public void onMoved(float dx, float dy) {
-                horizontalAnimator.move(dx);
-                verticalAnimator.move(dy);
+                transformAnimator.move(dx, dy);
 
                 if (updateRestriction){
-                    updateRestrictionSize(dx,dy,cornerDraggedState);
+                    updateRestrictionSize(dy,cornerDraggedState);
                 }
             }
 
             @Override
             public void onFlinged(float velocityX, float velocityY) {
-                horizontalAnimator.fling(velocityX);
-                verticalAnimator.fling(velocityY);
+                transformAnimator.fling(velocityX, velocityY);
             }
 
             @Override
@@ -199,12 +304,8 @@ public class CropView extends FrameLayout implements Croppable {
 
             @Override
             public void onMoveEnded() {
-                if (horizontalAnimator.isNotFlinging()) {
-                    horizontalAnimator.reMoveIfNeeded(0);
-                }
-
-                if (verticalAnimator.isNotFlinging()) {
-                    verticalAnimator.reMoveIfNeeded(0);
+                if (!transformAnimator.isFlinging()) {
+                    transformAnimator.settle();
                 }
             }
         });
@@ -212,7 +313,17 @@ public class CropView extends FrameLayout implements Croppable {
             @Override
             @SuppressLint("ClickableViewAccessibility")
             public boolean onTouch(View v, MotionEvent event) {
-                actionDetector.detectAction(event);
+                if (metricsListener != null) {
+                    monitorFrames(event);
+                }
+                if (gestureProfiler != null) {
+                    gestureProfiler.onTouchEvent(event.getActionMasked());
+                    long start = System.nanoTime();
+                    actionDetector.detectAction(event);
+                    gestureProfiler.addSection(GestureProfiler.SECTION_DETECT_ACTION, System.nanoTime() - start);
+                } else {
+                    actionDetector.detectAction(event);
+                }
 
                 if (use_adjustable_crop_box) {
                     checkCornerTouch(event);
@@ -223,12 +334,38 @@ public class CropView extends FrameLayout implements Croppable {
         });
     }
 
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        if (actionDetector != null) {
+            actionDetector.cancel();
+        }
+        if (transformAnimator != null) {
+            transformAnimator.cancel();
+        }
+    }
+
+    private void monitorFrames(MotionEvent event) {
+        switch (event.getActionMasked()) {
+            case MotionEvent.ACTION_DOWN:
+                if (frameMonitor == null) {
+                    frameMonitor = new FrameMonitor(getContext());
+                }
+                frameMonitor.start();
+                break;
+            case MotionEvent.ACTION_UP:
+            case MotionEvent.ACTION_CANCEL:
+                GestureMetrics metrics = frameMonitor != null ? frameMonitor.stop() : null;
+                if (metrics != null) {
+                    metricsListener.onGestureEnded(metrics);
+                }
+                break;
+        }
+    }
+
     private void checkCornerTouch(MotionEvent event){
         switch (event.getAction()) {
             case MotionEvent.ACTION_DOWN:
-                CropImageView target = findViewById(R.id.cropme_image_view);
-                CropOverlayView overlayView = findViewById(R.id.cropme_overlay);
-
                 if (overlayView.getLeftTopCorner().contains(event.getX(), event.getY())) {
                     cornerDraggedState = TOP_LEFT;
                     updateRestriction = true;
@@ -251,13 +388,12 @@ public class CropView extends FrameLayout implements Croppable {
     }
 
     private void addLayouts() {
-        CropImageView imageView = new CropImageView(getContext());
+        imageView = new CropImageView(getContext());
         imageView.setId(R.id.cropme_image_view);
-        LayoutParams imageParams = new LayoutParams(ViewGroup.LayoutParams.WRAP_CONTENT,
-                ViewGroup.LayoutParams.WRAP_CONTENT, Gravity.CENTER);
-        imageView.setScaleType(ImageView.ScaleType.FIT_XY);
+        LayoutParams imageParams = new LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT,
+                ViewGroup.LayoutParams.MATCH_PARENT, Gravity.CENTER);
         addView(imageView, imageParams);
-        CropOverlayView overlayView = new CropOverlayView(getContext());
+        overlayView = new CropOverlayView(getContext());
         overlayView.setUse_adjustable_crop_box(use_adjustable_crop_box);
         overlayView.setId(R.id.cropme_overlay);
         LayoutParams overlayParams = new LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT,
@@ -267,207 +403,502 @@ public class CropView extends FrameLayout implements Croppable {
 
     @Override
     public void setUri(Uri uri) {
-        ImageView image = findViewById(R.id.cropme_image_view);
-        image.setImageURI(uri);
-        image.requestLayout();
+        setUri(uri, null);
     }
 
     @Override
-    public void setBitmap(Bitmap bitmap) {
-        ImageView image = findViewById(R.id.cropme_image_view);
-        image.setImageBitmap(bitmap);
-        image.requestLayout();
+    public void setUri(Uri uri, @Nullable Bitmap preview) {
+        sourceUri = uri;
+        previewBitmap = preview;
+        imageView.getTransform().setRotation(0);
+        retireDecodedBitmap();
+        final int decodeId = ++currentDecodeId;
+        final ContentResolver resolver = getContext().getContentResolver();
+        final Uri source = uri;
+
+        BitmapFactory.Options bounds = BitmapLoader.decodeBounds(resolver, uri);
+        if (bounds == null) {
+            sourceOrientation = CropEngine.ORIENTATION_NORMAL;
+            imageView.setTileRenderer(null);
+            imageView.setSource(0, 0, CropEngine.ORIENTATION_NORMAL);
+            if (preview == null) {
+                imageView.setImageURI(uri);
+                imageView.requestLayout();
+                return;
+            }
+            // setImageURI decodes on the main thread, so it waits until the preview is drawn
+            imageView.setImageBitmap(preview, CropEngine.ORIENTATION_NORMAL);
+            imageView.requestLayout();
+            Choreographer.getInstance().postFrameCallback(new Choreographer.FrameCallback() {
+                @Override
+                public void doFrame(long frameTimeNanos) {
+                    mainHandler.post(new Runnable() {
+                        @Override
+                        public void run() {
+                            if (decodeId != currentDecodeId) {
+                                return;
+                            }
+                            imageView.setImageURI(source);
+                            imageView.requestLayout();
+                        }
+                    });
+                }
+            });
+            return;
+        }
+
+        // pixels stay as they are stored. the orientation is applied when they are drawn and cropped.
+        sourceOrientation = ExifOrientation.read(resolver, uri);
+        boolean swapped = CropEngine.swapsDimensions(sourceOrientation);
+        int orientedWidth = swapped ? bounds.outHeight : bounds.outWidth;
+        int orientedHeight = swapped ? bounds.outWidth : bounds.outHeight;
+        imageView.setSource(orientedWidth, orientedHeight, sourceOrientation);
+        if (preview != null) {
+            // the preview is laid out in the rect of the source, so it shows on the next frame
+            imageView.setImageBitmap(preview, CropEngine.ORIENTATION_NORMAL);
+        } else {
+            imageView.setImageDrawable(null);
+        }
+        imageView.requestLayout();
+
+        // with tiled zoom, the whole image is only needed at display size. tiles add detail when zoomed in.
+        final int sourceWidth = bounds.outWidth;
+        final int sourceHeight = bounds.outHeight;
+        final Bitmap.Config config = decodePolicy.configFor(bounds.outMimeType);
+        final int inSampleSize = decodePolicy.sampleSizeFor(sourceWidth, sourceHeight,
+                calculateInSampleSize(orientedWidth, orientedHeight, tiledZoom ? 1 : decodePolicy.detailScale(maxScale)),
+                config);
+        // hardware bitmaps can not be decoded into reused memory
+        final boolean pooled = !(Build.VERSION.SDK_INT >= Build.VERSION_CODES.O && config == Bitmap.Config.HARDWARE);
+        if (tiledZoom) {
+            int cacheBytes = (int) Math.min(Runtime.getRuntime().maxMemory() / TILE_CACHE_DIVISOR,
+                    decodePolicy.getMaxBytes());
+            imageView.setTileRenderer(new TileRenderer(imageView, resolver, uri, bounds.outWidth, bounds.outHeight,
+                    inSampleSize, cacheBytes, decodeExecutor));
+        }
+        final int[] progressiveSampleSizes = progressiveSampleSizes(bounds, orientedWidth, inSampleSize, preview);
+        final boolean measured = metricsListener != null;
+        decodeExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                for (int progressiveSampleSize : progressiveSampleSizes) {
+                    if (decodeId != currentDecodeId) {
+                        return;
+                    }
+                    BitmapPool pool = pooled ? bitmapPool : null;
+                    showDecoded(decodeId, BitmapLoader.decodeSampled(resolver, source, sourceWidth, sourceHeight,
+                            progressiveSampleSize, config, pool), pool, null);
+                }
+                if (decodeId != currentDecodeId) {
+                    return;
+                }
+                BitmapPool pool = pooled ? bitmapPool : null;
+                long start = measured ? System.nanoTime() : 0;
+                Bitmap bitmap = BitmapLoader.decodeSampled(resolver, source, sourceWidth, sourceHeight,
+                        inSampleSize, config, pool);
+                long decodeNanos = measured ? System.nanoTime() - start : 0;
+                showDecoded(decodeId, bitmap, pool, measured && bitmap != null
+                        ? new DecodeMetrics(decodeNanos, inSampleSize, bitmap.getByteCount()) : null);
+            }
+        });
     }
 
-    @Override
-    public void setAdjustViewBounds(Boolean value) {
-        ImageView image = findViewById(R.id.cropme_image_view);
-        image.setAdjustViewBounds(value);
-        image.requestLayout();
+    /**
+     * inSampleSizes to decode before inSampleSize, coarsest first, so the image gets sharper while it is decoded.
+     * only jpeg decodes faster when subsampled, and steps which are not sharper than preview are skipped.
+     **/
+    private static int[] progressiveSampleSizes(BitmapFactory.Options bounds, int orientedWidth, int inSampleSize,
+                                                @Nullable Bitmap preview) {
+        if (!"image/jpeg".equals(bounds.outMimeType)) {
+            return new int[0];
+        }
+        int shownWidth = preview != null ? preview.getWidth() : 0;
+        int count = 0;
+        int[] sampleSizes = new int[PROGRESSIVE_SAMPLE_SIZES.length];
+        for (int sampleSize : PROGRESSIVE_SAMPLE_SIZES) {
+            if (inSampleSize < sampleSize && shownWidth < orientedWidth / sampleSize) {
+                sampleSizes[count++] = sampleSize;
+            }
+        }
+        return Arrays.copyOf(sampleSizes, count);
     }
 
-    @Override
-    public void setImageDrawable(Drawable image) {
-        ImageView tvImage = findViewById(R.id.cropme_image_view);
-        tvImage.setImageDrawable(image);
+    /**
+     * show bitmap decoded for decodeId on the main thread, replacing what is shown without moving the image
+     **/
+    private void showDecoded(final int decodeId, @Nullable final Bitmap bitmap, @Nullable final BitmapPool pool,
+                             @Nullable final DecodeMetrics metrics) {
+        if (bitmap == null) {
+            return;
+        }
+        mainHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                if (decodeId == currentDecodeId) {
+                    retireDecodedBitmap();
+                    decodedBitmap = bitmap;
+                    imageView.setImageBitmap(bitmap, sourceOrientation);
+                    if (metrics != null && metricsListener != null) {
+                        metricsListener.onDecoded(metrics);
+                    }
+                } else if (pool != null) {
+                    pool.put(bitmap);
+                }
+            }
+        });
     }
 
     @Override
-    public void setImageBitmap(Bitmap placeHolderImage) {
-        ImageView image = findViewById(R.id.cropme_image_view);
-        image.setImageBitmap(placeHolderImage);
+    public void setBitmap(Bitmap bitmap) {
+        clearSource();
+        imageView.setImageBitmap(bitmap);
+        imageView.requestLayout();
     }
 
+    /**
+     * forget the uri set last, so decodes still running for it are dropped and crops read what is set next
+     **/
+    private void clearSource() {
+        sourceUri = null;
+        previewBitmap = null;
+        sourceOrientation = CropEngine.ORIENTATION_NORMAL;
+        imageView.getTransform().setRotation(0);
+        retireDecodedBitmap();
+        currentDecodeId++;
+        imageView.setTileRenderer(null);
+        imageView.setSource(0, 0, CropEngine.ORIENTATION_NORMAL);
+    }
 
-    private Boolean restrictUpperRestrictionBounds(RectF tRestriction, int direction, CORNER_DRAGGED corner_dragged){
-        float restrictionRatio = (tRestriction.right - tRestriction.left)/(tRestriction.bottom - tRestriction.top);
-        float maxRatio = 1f;
-        Boolean reachedMaxRatio = false;
+    /**
+     * set executor to decode images set by {@link #setUri(Uri)}. {@link AsyncTask#THREAD_POOL_EXECUTOR} by default.
+     **/
+    public void setDecodeExecutor(@NonNull Executor executor) {
+        this.decodeExecutor = executor;
+    }
 
-        if (restrictionRatio <= maxRatio){
-            reachedMaxRatio = true;
+    /**
+     * set policy which images set by {@link #setUri(Uri)} are decoded by from the next one.
+     * {@link DecodePolicy#forDevice(Context)} by default.
+     **/
+    public void setDecodePolicy(@NonNull DecodePolicy decodePolicy) {
+        this.decodePolicy = decodePolicy;
+    }
+
+    /**
+     * set pool which decoded images and crop results are taken from.
+     * bitmaps decoded by this view go back to the pool when they are replaced.
+     **/
+    public void setBitmapPool(@Nullable BitmapPool bitmapPool) {
+        this.bitmapPool = bitmapPool;
+    }
+
+    /**
+     * set listener which receives timings and memory of decodes, crops and gestures. pass null to stop measuring.
+     **/
+    public void setCropMetricsListener(@Nullable CropMetricsListener metricsListener) {
+        this.metricsListener = metricsListener;
+        if (metricsListener == null && frameMonitor != null) {
+            frameMonitor.stop();
         }
+    }
 
-        if (reachedMaxRatio){
-            /* Going down */
-            if (direction == 0){
-                switch (corner_dragged){
-                    case TOP_LEFT:
-                    case TOP_RIGHT:
-                        return false;
-                    case BOTTOM_LEFT:
-                    case BOTTOM_RIGHT:
-                        return true;
-                }
+    /**
+     * set listener which receives frame times of each gesture, from touch down until the image settles,
+     * and the time spent in touch handling, moving back and drawing the overlay. pass null to stop profiling.
+     * this is meant for debugging, and adds a little work to every touch event and frame while it is set.
+     **/
+    public void setOnGestureProfiledListener(@Nullable final OnGestureProfiledListener listener) {
+        if (gestureProfiler != null) {
+            gestureProfiler.cancel();
+        }
+        gestureProfiler = listener == null ? null : new GestureProfiler(getContext(), new GestureProfiler.Callback() {
+            @Override
+            public boolean isAnimating() {
+                return transformAnimator != null && transformAnimator.isAnimating();
             }
-            else { /* going up */
-                switch (corner_dragged){
-                    case TOP_LEFT:
-                    case TOP_RIGHT:
-                        return true;
-                    case BOTTOM_LEFT:
-                    case BOTTOM_RIGHT:
-                        return false;
-                }
+
+            @Override
+            public void onProfiled(GestureProfile profile) {
+                listener.onGestureProfiled(profile);
             }
+        });
+        overlayView.setProfiler(gestureProfiler);
+        if (transformAnimator != null) {
+            transformAnimator.setProfiler(gestureProfiler);
         }
-
-        return false;
     }
 
-    private Boolean restrictLowerRestrictionBounds(RectF tRestriction, int direction, CORNER_DRAGGED corner_dragged){
-        float restrictionRatio = (tRestriction.right - tRestriction.left)/(tRestriction.bottom - tRestriction.top);
-        float maxRatio = 16.0f/9.0f;
-        Boolean reachedMaxRatio = false;
-
-        if (restrictionRatio >= maxRatio){
-            reachedMaxRatio = true;
+    private void retireDecodedBitmap() {
+        if (decodedBitmap != null) {
+            retiredBitmaps.add(decodedBitmap);
+            decodedBitmap = null;
         }
+        releaseRetiredBitmaps();
+    }
 
-        if (reachedMaxRatio){
-            /* Going down */
-            if (direction == 0){
-                switch (corner_dragged){
-                    case TOP_LEFT:
-                    case TOP_RIGHT:
-                        return true;
-                    case BOTTOM_LEFT:
-                    case BOTTOM_RIGHT:
-                        return false;
-                }
-            }
-            else { /* going up */
-                switch (corner_dragged){
-                    case TOP_LEFT:
-                    case TOP_RIGHT:
-                        return false;
-                    case BOTTOM_LEFT:
-                    case BOTTOM_RIGHT:
-                        return true;
-                }
+    /**
+     * running crops may still read retired bitmaps, so they go back to the pool only when no crop is running
+     **/
+    private void releaseRetiredBitmaps() {
+        if (runningCrops != 0) {
+            return;
+        }
+        if (bitmapPool != null) {
+            for (Bitmap bitmap : retiredBitmaps) {
+                bitmapPool.put(bitmap);
             }
         }
-
-        return false;
+        retiredBitmaps.clear();
     }
 
-    private float restrictViewTop(float viewTop, float restrictionTop){
-        if (restrictionTop <= viewTop){
-            return viewTop;
-        } else return restrictionTop;
+    /**
+     * inSampleSize which keeps enough pixels to show the image at the given scale
+     **/
+    private int calculateInSampleSize(int sourceWidth, int sourceHeight, int detailScale) {
+        float resultWidth;
+        float resultHeight;
+        if (!restriction.getRect().isEmpty()) {
+            resultWidth = restriction.getRect().width();
+            resultHeight = restriction.getRect().height();
+        } else if (getWidth() > 0 && getHeight() > 0) {
+            resultWidth = getWidth() * percentWidth;
+            resultHeight = getHeight() * percentHeight;
+        } else {
+            DisplayMetrics metrics = getResources().getDisplayMetrics();
+            resultWidth = metrics.widthPixels * percentWidth;
+            resultHeight = metrics.heightPixels * percentHeight;
+        }
+        float displayScale = Math.max(resultWidth / sourceWidth, resultHeight / sourceHeight);
+        int reqWidth = (int) (sourceWidth * displayScale * detailScale);
+        int reqHeight = (int) (sourceHeight * displayScale * detailScale);
+        return CropEngine.calculateInSampleSize(sourceWidth, sourceHeight, reqWidth, reqHeight);
     }
 
-    private float restrictViewBotttom(float viewBottom, float restrictionBottom){
-        if (restrictionBottom >= viewBottom){
-            return viewBottom;
-        } else return restrictionBottom;
+    @Override
+    public void setAdjustViewBounds(Boolean value) {
+        imageView.setAdjustViewBounds(value);
+        imageView.requestLayout();
     }
 
+    @Override
+    public void setImageDrawable(Drawable image) {
+        clearSource();
+        imageView.setImageDrawable(image);
+        imageView.requestLayout();
+    }
 
-    private void updateRestrictionSize(float dx,float dy,CORNER_DRAGGED corner_dragged){
-        CropImageView target = findViewById(R.id.cropme_image_view);
-        CropOverlayView overlayView = findViewById(R.id.cropme_overlay);
-
-
-
-        RectF temp = overlayView.getResultRect();
-        RectF tempRestriction = null;
-
-        int direction = dy >= 0? 0 : 1;
-        if (restrictLowerRestrictionBounds(temp,direction,corner_dragged)) {
-            return;
-        }
+    @Override
+    public void setImageBitmap(Bitmap placeHolderImage) {
+        clearSource();
+        imageView.setImageBitmap(placeHolderImage);
+        imageView.requestLayout();
+    }
 
-        if (restrictUpperRestrictionBounds(temp,direction,corner_dragged)){
-            return;
-        }
 
+    private void updateRestrictionSize(float dy,CORNER_DRAGGED corner_dragged){
+        RectF rect = restriction.getRect();
         switch (corner_dragged){
             case TOP_LEFT:
             case TOP_RIGHT:
-                tempRestriction = new RectF(temp.left, restrictViewTop(overlayView.getTop(),temp.top + dy), temp.right, temp.bottom);
+                restriction.resizeTop(rect.top + dy, overlayView.getTop());
                 break;
 
             case BOTTOM_LEFT:
             case BOTTOM_RIGHT:
-                tempRestriction = new RectF(temp.left, temp.top, temp.right, restrictViewBotttom(overlayView.getBottom(),temp.bottom + dy));
+                restriction.resizeBottom(rect.bottom + dy, overlayView.getBottom());
                 break;
         }
-
-        if (tempRestriction == null)
-            return;
-
-        horizontalAnimator = new HorizontalMoveAnimatorImpl(target, tempRestriction, maxScale);
-        verticalAnimator = new VerticalMoveAnimatorImpl(target, tempRestriction, maxScale);
-        scaleAnimator = new ScaleAnimatorImpl(target, maxScale);
-
-        target.setAdjustViewBounds(adjustBounds);
-        if (placeholderImage != null) target.setImageDrawable(placeholderImage);
-        target.setResultRect(tempRestriction);
-        overlayView.setAttrs(tempRestriction, backgroundAlpha, withBorder);
-        overlayView.requestLayout();
     }
 
     @Override
     public void crop(OnCropListener listener) {
-        CropImageView target = findViewById(R.id.cropme_image_view);
-        CropOverlayView overlayView = findViewById(R.id.cropme_overlay);
-        Rect targetRect = new Rect();
-        target.getHitRect(targetRect);
-        Bitmap bitmap = ((BitmapDrawable) target.getDrawable()).getBitmap();
-        bitmap = Bitmap.createScaledBitmap(bitmap, targetRect.width(), targetRect.height(), false);
-        RectF finalRestriction = overlayView.getResultRect();
-        int leftOffset = (int) (finalRestriction.left - targetRect.left);
-        int topOffset = (int) (finalRestriction.top - targetRect.top);
-        int rightOffset = (int) (targetRect.right - finalRestriction.right);
-        int bottomOffset = (int) (targetRect.bottom - finalRestriction.bottom);
-        int width = (int) finalRestriction.width();
-        int height = (int) finalRestriction.height();
-
-        if (leftOffset < 0) {
-            width += leftOffset;
-            leftOffset = 0;
-        }
-        if (topOffset < 0) {
-            height += topOffset;
-            topOffset = 0;
-        }
-        if (rightOffset < 0) {
-            width += rightOffset;
-        }
-        if (bottomOffset < 0) {
-            height += bottomOffset;
-        }
-        if (width < 0 || height < 0) {
-            listener.onFailure();
-            return;
-        }
+        cropNow(DEFAULT_CROP_REQUEST, listener);
+    }
+
+    @Override
+    public void crop(int outputWidth, int outputHeight, OnCropListener listener) {
+        cropNow(new CropRequest.Builder().setOutputSize(outputWidth, outputHeight).build(), listener);
+    }
 
-        Bitmap result = Bitmap.createBitmap(bitmap, leftOffset, topOffset, width, height);
+    private void cropNow(CropRequest request, OnCropListener listener) {
+        CropMetrics metrics = metricsListener != null ? new CropMetrics() : null;
+        Bitmap result = Cropper.crop(getContext().getContentResolver(), snapshotGeometry(), request, bitmapPool, metrics);
+        if (metrics != null && metricsListener != null) {
+            metricsListener.onCropped(metrics);
+        }
         if (result != null) {
             listener.onSuccess(result);
         } else {
             listener.onFailure();
         }
     }
+
+    @Override
+    public CropTask crop(final CropRequest request, Executor executor, final OnCropListener listener) {
+        final CropGeometry geometry = snapshotGeometry();
+        final ContentResolver resolver = getContext().getContentResolver();
+        final BitmapPool pool = bitmapPool;
+        final CropMetrics metrics = metricsListener != null ? new CropMetrics() : null;
+        final CropTask task = new CropTask();
+        runningCrops++;
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                final Bitmap result = task.isCancelled() ? null : Cropper.crop(resolver, geometry, request, pool, metrics);
+                mainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        onCropFinished(metrics);
+                        if (task.isCancelled()) {
+                            if (pool != null && result != geometry.bitmap) {
+                                pool.put(result);
+                            }
+                            return;
+                        }
+                        if (result != null) {
+                            listener.onSuccess(result);
+                        } else {
+                            listener.onFailure();
+                        }
+                    }
+                });
+            }
+        });
+        return task;
+    }
+
+    @Override
+    public CropTask cropTo(final OutputStream stream, final Bitmap.CompressFormat format, final int quality,
+                           Executor executor, OnCropToListener listener) {
+        final CropGeometry geometry = snapshotGeometry();
+        final ContentResolver resolver = getContext().getContentResolver();
+        final BitmapPool pool = bitmapPool;
+        final CropMetrics metrics = metricsListener != null ? new CropMetrics() : null;
+        return runCropTo(executor, listener, metrics, new CropToAction() {
+            @Override
+            public boolean run() {
+                return Cropper.cropTo(resolver, geometry, DEFAULT_CROP_REQUEST, format, quality, stream, pool, metrics);
+            }
+        });
+    }
+
+    @Override
+    public CropTask cropTo(final File file, final Bitmap.CompressFormat format, final int quality,
+                           Executor executor, OnCropToListener listener) {
+        final CropGeometry geometry = snapshotGeometry();
+        final ContentResolver resolver = getContext().getContentResolver();
+        final BitmapPool pool = bitmapPool;
+        final CropMetrics metrics = metricsListener != null ? new CropMetrics() : null;
+        return runCropTo(executor, listener, metrics, new CropToAction() {
+            @Override
+            public boolean run() {
+                return Cropper.cropTo(resolver, geometry, DEFAULT_CROP_REQUEST, format, quality, file, pool, metrics);
+            }
+        });
+    }
+
+    @Override
+    public CropTask cropRegions(List<CropSpec> specs, Executor executor, final OnCropRegionsListener listener) {
+        Bitmap bitmap = shownBitmap();
+        final BitmapPool pool = bitmapPool;
+        final CropTask task = new CropTask();
+        runningCrops++;
+        RegionCropper cropper = new RegionCropper(getContext().getContentResolver(), sourceUri, bitmap, sourceOrientation,
+                new ArrayList<>(specs), executor, task, pool, new RegionCropper.Callback() {
+            @Override
+            public void onFinished(@Nullable final List<Bitmap> results) {
+                mainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        onCropFinished(null);
+                        if (task.isCancelled()) {
+                            if (results != null && pool != null) {
+                                for (Bitmap result : results) {
+                                    pool.put(result);
+                                }
+                            }
+                            return;
+                        }
+                        if (results != null) {
+                            listener.onSuccess(results);
+                        } else {
+                            listener.onFailure();
+                        }
+                    }
+                });
+            }
+        });
+        cropper.start();
+        return task;
+    }
+
+    private interface CropToAction {
+        boolean run();
+    }
+
+    private CropTask runCropTo(Executor executor, final OnCropToListener listener,
+                               @Nullable final CropMetrics metrics, final CropToAction action) {
+        final CropTask task = new CropTask();
+        runningCrops++;
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                final boolean written = !task.isCancelled() && action.run();
+                mainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        onCropFinished(metrics);
+                        if (task.isCancelled()) {
+                            return;
+                        }
+                        if (written) {
+                            listener.onSuccess();
+                        } else {
+                            listener.onFailure();
+                        }
+                    }
+                });
+            }
+        });
+        return task;
+    }
+
+    /**
+     * @param metrics metrics of the finished crop to report. can be null
+     **/
+    private void onCropFinished(@Nullable CropMetrics metrics) {
+        runningCrops--;
+        releaseRetiredBitmaps();
+        if (metrics != null && metricsListener != null) {
+            metricsListener.onCropped(metrics);
+        }
+    }
+
+    /**
+     * bitmap on display which can be cropped when the source can not be decoded by region
+     **/
+    @Nullable
+    private Bitmap shownBitmap() {
+        Drawable drawable = imageView.getDrawable();
+        Bitmap bitmap = drawable instanceof BitmapDrawable ? ((BitmapDrawable) drawable).getBitmap() : null;
+        // the preview is upright and small, so it is no source to crop from.
+        // hardware bitmaps can not be drawn to the canvas of a crop.
+        if (bitmap == previewBitmap
+                || (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O && bitmap != null
+                && bitmap.getConfig() == Bitmap.Config.HARDWARE)) {
+            return null;
+        }
+        return bitmap;
+    }
+
+    /**
+     * take what is needed to crop from the views. must be called on the main thread.
+     **/
+    private CropGeometry snapshotGeometry() {
+        RectF targetRect = new RectF();
+        imageView.getTransform().getImageRect(targetRect);
+        Bitmap bitmap = shownBitmap();
+        return new CropGeometry(sourceUri, bitmap, sourceOrientation, targetRect,
+                imageView.getTransform().getRotation(), overlayView.getResultRect());
+    }
 }
@@ -3,6 +3,12 @@ package com.takusemba.cropme;
 import android.graphics.Bitmap;
 import android.graphics.drawable.Drawable;
 import android.net.Uri;
+import android.support.annotation.Nullable;
+
+import java.io.File;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.Executor;
 
 /**
  * Croppable
@@ -17,6 +23,14 @@ interface Croppable {
      **/
     void setUri(Uri uri);
 
+    /**
+     * setUri to {@link CropImageView} and show preview until the source is decoded.
+     * preview is drawn upright as it is, and sharper versions of the source replace it as they are decoded.
+     *
+     * @param preview small bitmap of the same image such as a thumbnail. can be null
+     **/
+    void setUri(Uri uri, @Nullable Bitmap preview);
+
     /**
      * setBitmap to {@link CropImageView}
      **/
@@ -24,21 +38,55 @@ interface Croppable {
 
     /**
      * crop image. fails if image is outside of {@link CropOverlayView#resultRect}
+     * when the image is set by {@link #setUri(Uri)}, the result is decoded from the source in full resolution
      **/
     void crop(OnCropListener listener);
 
+    /**
+     * crop image and scale it to exactly outputWidth x outputHeight.
+     * when the image is set by {@link #setUri(Uri)}, the source is decoded only as large as the output size needs.
+     **/
+    void crop(int outputWidth, int outputHeight, OnCropListener listener);
+
+    /**
+     * crop image on the given executor. geometry is taken at the time this is called,
+     * and the listener is called on the main thread unless the returned task is cancelled.
+     **/
+    CropTask crop(CropRequest request, Executor executor, OnCropListener listener);
+
+    /**
+     * crop image on the given executor and encode it straight to stream without handing over the result bitmap.
+     * the stream is not closed.
+     **/
+    CropTask cropTo(OutputStream stream, Bitmap.CompressFormat format, int quality, Executor executor, OnCropToListener listener);
+
+    /**
+     * crop image on the given executor and encode it straight to file without handing over the result bitmap.
+     **/
+    CropTask cropTo(File file, Bitmap.CompressFormat format, int quality, Executor executor, OnCropToListener listener);
+
+    /**
+     * crop several regions of the image set by {@link #setUri(Uri)} or {@link #setBitmap(Bitmap)}.
+     * the source is read once, and regions are cropped from it in parallel on the executor,
+     * each scaled to its output size. no specs succeed with no bitmaps.
+     * the listener is called on the main thread unless the returned task is cancelled.
+     **/
+    CropTask cropRegions(List<CropSpec> specs, Executor executor, OnCropRegionsListener listener);
+
     /**
      * set adjustViewBounds to keep image aspect ratio
      */
     void setAdjustViewBounds(Boolean value);
 
     /**
-     * set Image resource to use as placeholder image
+     * set Image resource to use as placeholder image.
+     * it replaces the image set before, and a decode still running for a uri set before is dropped.
      */
     void setImageDrawable(Drawable image);
 
     /**
-     * set Image bitmap to use as placeholder image
+     * set Image bitmap to use as placeholder image.
+     * it replaces the image set before, and a decode still running for a uri set before is dropped.
      */
     void setImageBitmap(Bitmap placeHolderImage);
 }
@@ -0,0 +1,402 @@
+package com.takusemba.cropme;
+
+import android.content.ContentResolver;
+import android.graphics.Bitmap;
+import android.graphics.BitmapRegionDecoder;
+import android.graphics.Canvas;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.support.annotation.Nullable;
+
+import com.takusemba.cropme.engine.CropEngine;
+import com.takusemba.cropme.engine.IntRect;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Cropper
+ *
+ * @author takusemba
+ * @since 17/10/2026
+ **/
+class Cropper {
+
+    private Cropper() {
+    }
+
+    /**
+     * crop the image described by geometry. this does not touch any view, so it can run on any thread.
+     * if request has an output size, the result is scaled to exactly that size.
+     * the result is upright, and the exif orientation and the rotation of the image are applied
+     * in the same pass as cropping and scaling.
+     *
+     * @param metrics metrics to record the crop to. can be null
+     * @return cropped bitmap, or null if the image is outside of the crop rect
+     **/
+    @Nullable
+    static Bitmap crop(ContentResolver resolver, CropGeometry geometry, CropRequest request,
+                       @Nullable BitmapPool pool, @Nullable CropMetrics metrics) {
+        if (geometry.rotation != 0) {
+            return cropRotated(resolver, geometry, request, pool, metrics);
+        }
+        RectF targetRect = geometry.imageRect;
+        RectF finalRestriction = geometry.cropRect;
+        int orientation = geometry.orientation;
+        int outputWidth = request.getOutputWidth();
+        int outputHeight = request.getOutputHeight();
+
+        if (geometry.sourceUri != null) {
+            long start = metrics != null ? System.nanoTime() : 0;
+            Bitmap decoded = BitmapLoader.decodeRegion(resolver, geometry.sourceUri, orientation, targetRect, finalRestriction,
+                    request.getConfig(), outputWidth, outputHeight, pool);
+            if (metrics != null) {
+                metrics.addDecodeNanos(System.nanoTime() - start);
+            }
+            if (decoded != null) {
+                if (metrics != null) {
+                    metrics.onAllocated(decoded);
+                }
+                boolean swapped = CropEngine.swapsDimensions(orientation);
+                int width = swapped ? decoded.getHeight() : decoded.getWidth();
+                int height = swapped ? decoded.getWidth() : decoded.getHeight();
+                if (orientation == CropEngine.ORIENTATION_NORMAL
+                        && (!request.hasOutputSize() || (width == outputWidth && height == outputHeight))) {
+                    return decoded;
+                }
+                start = metrics != null ? System.nanoTime() : 0;
+                Bitmap result = draw(decoded, orientation, new Rect(0, 0, width, height),
+                        request.hasOutputSize() ? outputWidth : width,
+                        request.hasOutputSize() ? outputHeight : height, request.getConfig(), pool);
+                if (metrics != null) {
+                    metrics.addTransformNanos(System.nanoTime() - start);
+                    metrics.onAllocated(result);
+                    metrics.onReleased(decoded);
+                }
+                release(decoded, pool);
+                return result;
+            }
+        }
+
+        if (geometry.bitmap == null) {
+            return null;
+        }
+
+        long start = metrics != null ? System.nanoTime() : 0;
+        Bitmap result;
+        if (request.hasOutputSize()) {
+            result = cropBitmap(geometry.bitmap, orientation, targetRect, finalRestriction,
+                    outputWidth, outputHeight, request.getConfig(), pool);
+        } else {
+            result = cropBitmap(geometry.bitmap, orientation, targetRect, finalRestriction, pool);
+        }
+        if (metrics != null) {
+            metrics.addTransformNanos(System.nanoTime() - start);
+            if (result != null) {
+                metrics.onAllocated(result);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * crop an image which is rotated by geometry.rotation. only the bounds of the rotated crop rect are decoded,
+     * and they are turned upright, rotated, cropped and scaled in one filtered draw.
+     **/
+    @Nullable
+    private static Bitmap cropRotated(ContentResolver resolver, CropGeometry geometry, CropRequest request,
+                                      @Nullable BitmapPool pool, @Nullable CropMetrics metrics) {
+        if (geometry.imageRect.isEmpty()) {
+            return null;
+        }
+        int orientation = geometry.orientation;
+        boolean swapped = CropEngine.swapsDimensions(orientation);
+
+        if (geometry.sourceUri != null) {
+            long start = metrics != null ? System.nanoTime() : 0;
+            BitmapRegionDecoder decoder = BitmapLoader.newRegionDecoder(resolver, geometry.sourceUri);
+            if (decoder != null) {
+                try {
+                    int sourceWidth = swapped ? decoder.getHeight() : decoder.getWidth();
+                    int sourceHeight = swapped ? decoder.getWidth() : decoder.getHeight();
+                    Rect region = new Rect();
+                    BitmapLoader.toSourceRect(sourceWidth, sourceHeight, geometry.imageRect, geometry.rotation,
+                            geometry.cropRect, region);
+                    if (region.isEmpty()) {
+                        return null;
+                    }
+                    int width = outputWidth(request, geometry, sourceWidth);
+                    int height = outputHeight(request, geometry, sourceHeight);
+                    // the crop rect in source pixels has to keep at least one pixel for each output pixel
+                    int inSampleSize = CropEngine.calculateInSampleSize(
+                            (int) (geometry.cropRect.width() * sourceWidth / geometry.imageRect.width()),
+                            (int) (geometry.cropRect.height() * sourceHeight / geometry.imageRect.height()),
+                            width, height);
+                    IntRect stored = new IntRect(region.left, region.top, region.right, region.bottom);
+                    CropEngine.toStoredRect(orientation, decoder.getWidth(), decoder.getHeight(), stored, stored);
+                    Bitmap decoded = BitmapLoader.decodeRegion(decoder,
+                            new Rect(stored.left, stored.top, stored.right, stored.bottom),
+                            inSampleSize, request.getConfig(), pool);
+                    if (metrics != null) {
+                        metrics.addDecodeNanos(System.nanoTime() - start);
+                    }
+                    if (decoded == null) {
+                        return null;
+                    }
+                    if (metrics != null) {
+                        metrics.onAllocated(decoded);
+                    }
+                    start = metrics != null ? System.nanoTime() : 0;
+                    Bitmap result = drawRotated(decoded, orientation, region, sourceWidth, sourceHeight, geometry,
+                            width, height, request.getConfig(), pool);
+                    if (metrics != null) {
+                        metrics.addTransformNanos(System.nanoTime() - start);
+                        metrics.onAllocated(result);
+                        metrics.onReleased(decoded);
+                    }
+                    release(decoded, pool);
+                    return result;
+                } finally {
+                    decoder.recycle();
+                }
+            }
+        }
+
+        Bitmap source = geometry.bitmap;
+        if (source == null) {
+            return null;
+        }
+        long start = metrics != null ? System.nanoTime() : 0;
+        int sourceWidth = orientedWidth(source, orientation);
+        int sourceHeight = orientedHeight(source, orientation);
+        Rect region = new Rect();
+        BitmapLoader.toSourceRect(sourceWidth, sourceHeight, geometry.imageRect, geometry.rotation,
+                geometry.cropRect, region);
+        if (region.isEmpty()) {
+            return null;
+        }
+        // the whole bitmap is drawn, and only the pixels under the rotated crop rect are sampled
+        Bitmap result = drawRotated(source, orientation, new Rect(0, 0, sourceWidth, sourceHeight),
+                sourceWidth, sourceHeight, geometry,
+                request.hasOutputSize() ? request.getOutputWidth() : onScreenSize(geometry.cropRect.width()),
+                request.hasOutputSize() ? request.getOutputHeight() : onScreenSize(geometry.cropRect.height()),
+                request.hasOutputSize() ? request.getConfig() : configOf(source), pool);
+        if (metrics != null) {
+            metrics.addTransformNanos(System.nanoTime() - start);
+            metrics.onAllocated(result);
+        }
+        return result;
+    }
+
+    /**
+     * draw pixels, which hold region of the upright source, to a new bitmap of width x height in a single
+     * filtered pass. pixels are turned upright, placed where the image is shown, rotated around the center of
+     * geometry.imageRect and then cropped by geometry.cropRect.
+     *
+     * @param pixels       region of the source as stored, possibly subsampled
+     * @param region       part of the upright source which pixels hold
+     * @param sourceWidth  width of the upright source
+     * @param sourceHeight height of the upright source
+     **/
+    private static Bitmap drawRotated(Bitmap pixels, int orientation, Rect region, int sourceWidth, int sourceHeight,
+                                      CropGeometry geometry, int width, int height, Bitmap.Config config,
+                                      @Nullable BitmapPool pool) {
+        Bitmap result = pool != null ? pool.get(width, height, config) : null;
+        if (result == null) {
+            result = Bitmap.createBitmap(width, height, config);
+        }
+        RectF imageRect = geometry.imageRect;
+        RectF cropRect = geometry.cropRect;
+        Matrix matrix = new Matrix();
+        ExifOrientation.setMatrix(orientation, pixels.getWidth(), pixels.getHeight(), matrix);
+        matrix.postScale(region.width() / (float) orientedWidth(pixels, orientation),
+                region.height() / (float) orientedHeight(pixels, orientation));
+        matrix.postTranslate(region.left, region.top);
+        matrix.postScale(imageRect.width() / sourceWidth, imageRect.height() / sourceHeight);
+        matrix.postTranslate(imageRect.left, imageRect.top);
+        matrix.postRotate(geometry.rotation, imageRect.centerX(), imageRect.centerY());
+        matrix.postTranslate(-cropRect.left, -cropRect.top);
+        matrix.postScale(width / cropRect.width(), height / cropRect.height());
+        new Canvas(result).drawBitmap(pixels, matrix, new Paint(Paint.FILTER_BITMAP_FLAG));
+        return result;
+    }
+
+    /**
+     * size of the result when no output size is requested. the crop rect keeps the resolution of the source.
+     **/
+    private static int outputWidth(CropRequest request, CropGeometry geometry, int sourceWidth) {
+        if (request.hasOutputSize()) {
+            return request.getOutputWidth();
+        }
+        return Math.max(1, Math.round(geometry.cropRect.width() * sourceWidth / geometry.imageRect.width()));
+    }
+
+    private static int outputHeight(CropRequest request, CropGeometry geometry, int sourceHeight) {
+        if (request.hasOutputSize()) {
+            return request.getOutputHeight();
+        }
+        return Math.max(1, Math.round(geometry.cropRect.height() * sourceHeight / geometry.imageRect.height()));
+    }
+
+    private static int onScreenSize(float size) {
+        return Math.max(1, Math.round(size));
+    }
+
+    /**
+     * crop source in a single pass. the part of source under cropRect is sampled with one filtered
+     * draw from source pixels to on-screen pixels, so no scaled or turned copy of the whole source is made.
+     * peak memory is source plus the result, and source is never copied.
+     *
+     * @param orientation exif orientation of source. imageRect and cropRect are of the upright image
+     * @param imageRect   rect of the displayed image in view coordinates
+     * @param cropRect    rect to crop in view coordinates
+     * @param pool        pool to take the memory of the result from. can be null
+     * @return cropped bitmap in on-screen size, or null if the image is outside of cropRect
+     **/
+    @Nullable
+    static Bitmap cropBitmap(Bitmap source, int orientation, RectF imageRect, RectF cropRect, @Nullable BitmapPool pool) {
+        Rect region = toOrientedRegion(source, orientation, imageRect, cropRect);
+        if (region == null) {
+            return null;
+        }
+        float scaleX = imageRect.width() / orientedWidth(source, orientation);
+        float scaleY = imageRect.height() / orientedHeight(source, orientation);
+        int width = Math.max(1, Math.round(region.width() * scaleX));
+        int height = Math.max(1, Math.round(region.height() * scaleY));
+        return draw(source, orientation, region, width, height, configOf(source), pool);
+    }
+
+    /**
+     * crop source and scale the part under cropRect to exactly outputWidth x outputHeight in a single filtered pass
+     *
+     * @param orientation exif orientation of source. imageRect and cropRect are of the upright image
+     * @param imageRect   rect of the displayed image in view coordinates
+     * @param cropRect    rect to crop in view coordinates
+     * @param pool        pool to take the memory of the result from. can be null
+     * @return cropped bitmap, or null if the image is outside of cropRect
+     **/
+    @Nullable
+    static Bitmap cropBitmap(Bitmap source, int orientation, RectF imageRect, RectF cropRect,
+                             int outputWidth, int outputHeight, Bitmap.Config config, @Nullable BitmapPool pool) {
+        Rect region = toOrientedRegion(source, orientation, imageRect, cropRect);
+        if (region == null) {
+            return null;
+        }
+        return draw(source, orientation, region, outputWidth, outputHeight, config, pool);
+    }
+
+    /**
+     * draw region of source, turned upright by orientation, to a new bitmap of width x height in a single filtered pass.
+     * only the pixels under region are sampled.
+     *
+     * @param region part of the upright source to draw
+     * @param pool   pool to take the memory of the result from. can be null
+     **/
+    static Bitmap draw(Bitmap source, int orientation, Rect region, int width, int height,
+                       Bitmap.Config config, @Nullable BitmapPool pool) {
+        Bitmap result = pool != null ? pool.get(width, height, config) : null;
+        if (result == null) {
+            result = Bitmap.createBitmap(width, height, config);
+        }
+        Matrix matrix = new Matrix();
+        ExifOrientation.setMatrix(orientation, source.getWidth(), source.getHeight(), matrix);
+        matrix.postTranslate(-region.left, -region.top);
+        matrix.postScale(width / (float) region.width(), height / (float) region.height());
+        new Canvas(result).drawBitmap(source, matrix, new Paint(Paint.FILTER_BITMAP_FLAG));
+        return result;
+    }
+
+    /**
+     * @return part of the upright source under cropRect, or null if the image is outside of cropRect
+     **/
+    @Nullable
+    private static Rect toOrientedRegion(Bitmap source, int orientation, RectF imageRect, RectF cropRect) {
+        if (imageRect.isEmpty()) {
+            return null;
+        }
+        Rect region = new Rect();
+        BitmapLoader.toSourceRect(orientedWidth(source, orientation), orientedHeight(source, orientation),
+                imageRect, cropRect, region);
+        return region.isEmpty() ? null : region;
+    }
+
+    private static int orientedWidth(Bitmap source, int orientation) {
+        return CropEngine.swapsDimensions(orientation) ? source.getHeight() : source.getWidth();
+    }
+
+    private static int orientedHeight(Bitmap source, int orientation) {
+        return CropEngine.swapsDimensions(orientation) ? source.getWidth() : source.getHeight();
+    }
+
+    private static Bitmap.Config configOf(Bitmap source) {
+        Bitmap.Config config = source.getConfig();
+        return config != null && BitmapPool.bytesPerPixel(config) != 0 ? config : Bitmap.Config.ARGB_8888;
+    }
+
+    /**
+     * give bitmap back to pool, or recycle it if there is no pool
+     **/
+    static void release(Bitmap bitmap, @Nullable BitmapPool pool) {
+        if (pool != null) {
+            pool.put(bitmap);
+        } else {
+            bitmap.recycle();
+        }
+    }
+
+    /**
+     * crop the image described by geometry and encode it to stream.
+     * pixels of the cropped image are released as soon as they are encoded.
+     *
+     * @return true if the cropped image is written, false otherwise
+     **/
+    static boolean cropTo(ContentResolver resolver, CropGeometry geometry, CropRequest request,
+                          Bitmap.CompressFormat format, int quality, OutputStream stream,
+                          @Nullable BitmapPool pool, @Nullable CropMetrics metrics) {
+        Bitmap result = crop(resolver, geometry, request, pool, metrics);
+        if (result == null) {
+            return false;
+        }
+        long start = metrics != null ? System.nanoTime() : 0;
+        try {
+            return result.compress(format, quality, stream);
+        } finally {
+            if (metrics != null) {
+                metrics.addEncodeNanos(System.nanoTime() - start);
+            }
+            if (result != geometry.bitmap) {
+                release(result, pool);
+            }
+        }
+    }
+
+    /**
+     * same as {@link #cropTo(ContentResolver, CropGeometry, CropRequest, Bitmap.CompressFormat, int, OutputStream, BitmapPool, CropMetrics)}
+     * but writes to file. file is deleted if it fails.
+     **/
+    static boolean cropTo(ContentResolver resolver, CropGeometry geometry, CropRequest request,
+                          Bitmap.CompressFormat format, int quality, File file,
+                          @Nullable BitmapPool pool, @Nullable CropMetrics metrics) {
+        OutputStream stream = null;
+        boolean written = false;
+        try {
+            stream = new BufferedOutputStream(new FileOutputStream(file));
+            written = cropTo(resolver, geometry, request, format, quality, stream, pool, metrics);
+            stream.flush();
+        } catch (IOException e) {
+            written = false;
+        } finally {
+            BitmapLoader.closeQuietly(stream);
+            if (!written) {
+                //noinspection ResultOfMethodCallIgnored
+                file.delete();
+            }
+        }
+        return written;
+    }
+}
@@ -0,0 +1,41 @@
+package com.takusemba.cropme;
+
+/**
+ * DecodeMetrics
+ *
+ * @author takusemba
+ * @since 17/10/2026
+ **/
+public final class DecodeMetrics {
+
+    private final long decodeNanos;
+    private final int inSampleSize;
+    private final int bitmapBytes;
+
+    DecodeMetrics(long decodeNanos, int inSampleSize, int bitmapBytes) {
+        this.decodeNanos = decodeNanos;
+        this.inSampleSize = inSampleSize;
+        this.bitmapBytes = bitmapBytes;
+    }
+
+    /**
+     * time spent decoding the image on the decode executor
+     **/
+    public long getDecodeNanos() {
+        return decodeNanos;
+    }
+
+    /**
+     * inSampleSize the image is decoded with
+     **/
+    public int getInSampleSize() {
+        return inSampleSize;
+    }
+
+    /**
+     * bytes of pixels of the decoded bitmap
+     **/
+    public int getBitmapBytes() {
+        return bitmapBytes;
+    }
+}
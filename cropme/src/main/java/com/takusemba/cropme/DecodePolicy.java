@@ -0,0 +1,165 @@
+package com.takusemba.cropme;
+
+import android.app.ActivityManager;
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.os.Build;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+/**
+ * DecodePolicy
+ *
+ * how images set by {@link CropView#setUri(android.net.Uri)} are decoded for display.
+ * it limits the bytes of the displayed bitmap, the config it is decoded in, and how much detail is kept for zooming.
+ * crops are decoded from the source as {@link CropRequest} asks, whatever the policy is.
+ *
+ * @author takusemba
+ * @since 17/10/2026
+ **/
+public final class DecodePolicy {
+
+    /**
+     * part of the memory class which the displayed bitmap can use
+     **/
+    private static final int BUDGET_DIVISOR = 4;
+    private static final long MEGABYTE = 1024 * 1024;
+
+    private final long maxBytes;
+    private final int maxDetailScale;
+    private final boolean rgb565ForOpaque;
+    private final boolean hardware;
+
+    private DecodePolicy(Builder builder) {
+        this.maxBytes = builder.maxBytes;
+        this.maxDetailScale = builder.maxDetailScale;
+        this.rgb565ForOpaque = builder.rgb565ForOpaque;
+        this.hardware = builder.hardware;
+    }
+
+    /**
+     * policy for the memory of this device. the displayed bitmap can use a quarter of the memory class.
+     * on low ram devices, jpegs are decoded in RGB_565 and no more detail than the crop box shows is kept.
+     **/
+    @NonNull
+    public static DecodePolicy forDevice(@NonNull Context context) {
+        ActivityManager activityManager = (ActivityManager) context.getSystemService(Context.ACTIVITY_SERVICE);
+        Builder builder = new Builder();
+        if (activityManager == null) {
+            return builder.build();
+        }
+        builder.setMaxBytes(activityManager.getMemoryClass() * MEGABYTE / BUDGET_DIVISOR);
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT && activityManager.isLowRamDevice()) {
+            builder.setRgb565ForOpaque(true).setMaxDetailScale(1);
+        }
+        return builder.build();
+    }
+
+    /**
+     * bytes the displayed bitmap can use at most
+     **/
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * how many times the crop box is decoded at most, so zooming in stays sharp up to this scale
+     **/
+    public int getMaxDetailScale() {
+        return maxDetailScale;
+    }
+
+    public boolean isRgb565ForOpaque() {
+        return rgb565ForOpaque;
+    }
+
+    public boolean isHardware() {
+        return hardware;
+    }
+
+    /**
+     * config to decode an image of mimeType in
+     **/
+    Bitmap.Config configFor(@Nullable String mimeType) {
+        if (hardware && Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+            return Bitmap.Config.HARDWARE;
+        }
+        if (rgb565ForOpaque && "image/jpeg".equals(mimeType)) {
+            return Bitmap.Config.RGB_565;
+        }
+        return Bitmap.Config.ARGB_8888;
+    }
+
+    /**
+     * inSampleSize which is at least inSampleSize and keeps the decoded bitmap within {@link #getMaxBytes()}
+     **/
+    int sampleSizeFor(int sourceWidth, int sourceHeight, int inSampleSize, Bitmap.Config config) {
+        // hardware bitmaps take as much graphics memory as ARGB_8888
+        long bytesPerPixel = config == Bitmap.Config.RGB_565 ? 2 : 4;
+        int sampleSize = Math.max(1, inSampleSize);
+        while (sampleSize < Math.max(sourceWidth, sourceHeight)) {
+            long width = (sourceWidth + sampleSize - 1) / sampleSize;
+            long height = (sourceHeight + sampleSize - 1) / sampleSize;
+            if (width * height * bytesPerPixel <= maxBytes) {
+                break;
+            }
+            sampleSize *= 2;
+        }
+        return sampleSize;
+    }
+
+    /**
+     * detail to decode for a view which zooms up to maxScale
+     **/
+    int detailScale(int maxScale) {
+        return Math.min(maxScale, maxDetailScale);
+    }
+
+    public static final class Builder {
+
+        private long maxBytes = Long.MAX_VALUE;
+        private int maxDetailScale = Integer.MAX_VALUE;
+        private boolean rgb565ForOpaque = false;
+        private boolean hardware = false;
+
+        public Builder setMaxBytes(long maxBytes) {
+            if (maxBytes <= 0) {
+                throw new IllegalArgumentException("maxBytes must be greater than 0");
+            }
+            this.maxBytes = maxBytes;
+            return this;
+        }
+
+        /**
+         * decode no more than maxDetailScale times the crop box. 1 keeps only what the crop box shows unzoomed.
+         **/
+        public Builder setMaxDetailScale(int maxDetailScale) {
+            if (maxDetailScale < 1) {
+                throw new IllegalArgumentException("maxDetailScale must be at least 1");
+            }
+            this.maxDetailScale = maxDetailScale;
+            return this;
+        }
+
+        /**
+         * decode jpegs, which have no alpha, in RGB_565. they take half the memory and lose some color depth.
+         **/
+        public Builder setRgb565ForOpaque(boolean rgb565ForOpaque) {
+            this.rgb565ForOpaque = rgb565ForOpaque;
+            return this;
+        }
+
+        /**
+         * decode into hardware bitmaps on O and above, which are kept only in graphics memory.
+         * they can not be cropped from, so images which can not be decoded by region can not be cropped.
+         **/
+        public Builder setHardware(boolean hardware) {
+            this.hardware = hardware;
+            return this;
+        }
+
+        public DecodePolicy build() {
+            return new DecodePolicy(this);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.takusemba.cropme;
+
+import android.content.ContentResolver;
+import android.graphics.Matrix;
+import android.net.Uri;
+import android.support.media.ExifInterface;
+
+import com.takusemba.cropme.engine.CropEngine;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * ExifOrientation
+ *
+ * reads the exif orientation of the source and turns it into a matrix, so the image is shown and cropped
+ * upright without ever making a turned copy of the pixels.
+ *
+ * @author takusemba
+ * @since 17/10/2026
+ **/
+class ExifOrientation {
+
+    private ExifOrientation() {
+    }
+
+    /**
+     * @return exif orientation of the source, or {@link CropEngine#ORIENTATION_NORMAL} if it can not be read
+     **/
+    static int read(ContentResolver resolver, Uri uri) {
+        InputStream stream = null;
+        try {
+            stream = resolver.openInputStream(uri);
+            if (stream == null) {
+                return CropEngine.ORIENTATION_NORMAL;
+            }
+            int orientation = new ExifInterface(stream).getAttributeInt(ExifInterface.TAG_ORIENTATION,
+                    ExifInterface.ORIENTATION_NORMAL);
+            return isValid(orientation) ? orientation : CropEngine.ORIENTATION_NORMAL;
+        } catch (IOException e) {
+            return CropEngine.ORIENTATION_NORMAL;
+        } finally {
+            BitmapLoader.closeQuietly(stream);
+        }
+    }
+
+    static boolean isValid(int orientation) {
+        return CropEngine.ORIENTATION_NORMAL <= orientation && orientation <= CropEngine.ORIENTATION_ROTATE_270;
+    }
+
+    /**
+     * set matrix which maps stored pixels of width x height to the upright image at (0, 0).
+     * the upright image is height x width if {@link CropEngine#swapsDimensions(int)}.
+     **/
+    static void setMatrix(int orientation, float width, float height, Matrix out) {
+        switch (orientation) {
+            case CropEngine.ORIENTATION_FLIP_HORIZONTAL:
+                out.setScale(-1, 1);
+                out.postTranslate(width, 0);
+                break;
+            case CropEngine.ORIENTATION_ROTATE_180:
+                out.setRotate(180);
+                out.postTranslate(width, height);
+                break;
+            case CropEngine.ORIENTATION_FLIP_VERTICAL:
+                out.setScale(1, -1);
+                out.postTranslate(0, height);
+                break;
+            case CropEngine.ORIENTATION_TRANSPOSE:
+                out.setRotate(90);
+                out.postScale(-1, 1);
+                break;
+            case CropEngine.ORIENTATION_ROTATE_90:
+                out.setRotate(90);
+                out.postTranslate(height, 0);
+                break;
+            case CropEngine.ORIENTATION_TRANSVERSE:
+                out.setRotate(-90);
+                out.postScale(-1, 1);
+                out.postTranslate(height, width);
+                break;
+            case CropEngine.ORIENTATION_ROTATE_270:
+                out.setRotate(-90);
+                out.postTranslate(0, width);
+                break;
+            default:
+                out.reset();
+                break;
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.takusemba.cropme;
+
+import android.content.Context;
+import android.view.Choreographer;
+import android.view.WindowManager;
+
+import java.util.Arrays;
+
+/**
+ * FrameMonitor
+ *
+ * records frames between {@link #start()} and {@link #stop()} with {@link Choreographer}.
+ * a frame is dropped when a vsync passes without one, and a frame which comes after a dropped one is a jank frame.
+ * times between frames are kept. must be used on the main thread.
+ *
+ * @author takusemba
+ * @since 17/10/2026
+ **/
+class FrameMonitor implements Choreographer.FrameCallback {
+
+    private static final float DEFAULT_REFRESH_RATE = 60f;
+    private static final int INITIAL_FRAMES = 256;
+
+    /**
+     * called on every frame while the monitor is running
+     **/
+    interface FrameListener {
+
+        void onFrame(long frameTimeNanos);
+    }
+
+    private final long frameIntervalNanos;
+    private final FrameListener frameListener;
+
+    private long[] intervalNanos = new long[INITIAL_FRAMES];
+    private int intervalCount;
+    private boolean running = false;
+    private long startNanos;
+    private long lastFrameNanos;
+    private int frameCount;
+    private int droppedFrameCount;
+    private int jankFrameCount;
+
+    FrameMonitor(Context context) {
+        this(context, null);
+    }
+
+    /**
+     * @param frameListener called after each frame is recorded. may stop the monitor.
+     **/
+    FrameMonitor(Context context, FrameListener frameListener) {
+        this.frameIntervalNanos = frameIntervalNanos(context);
+        this.frameListener = frameListener;
+    }
+
+    /**
+     * time between two vsyncs of the default display
+     **/
+    static long frameIntervalNanos(Context context) {
+        WindowManager windowManager = (WindowManager) context.getSystemService(Context.WINDOW_SERVICE);
+        float refreshRate = windowManager != null ? windowManager.getDefaultDisplay().getRefreshRate() : 0;
+        if (refreshRate <= 0) {
+            refreshRate = DEFAULT_REFRESH_RATE;
+        }
+        return (long) (1000000000L / refreshRate);
+    }
+
+    void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        startNanos = System.nanoTime();
+        lastFrameNanos = 0;
+        frameCount = 0;
+        intervalCount = 0;
+        droppedFrameCount = 0;
+        jankFrameCount = 0;
+        Choreographer.getInstance().postFrameCallback(this);
+    }
+
+    /**
+     * @return metrics from {@link #start()}, or null if it is not started
+     **/
+    GestureMetrics stop() {
+        if (!running) {
+            return null;
+        }
+        cancel();
+        return new GestureMetrics(getElapsedNanos(), frameCount, droppedFrameCount);
+    }
+
+    /**
+     * stop without making metrics. what is recorded is kept until the next {@link #start()}.
+     **/
+    void cancel() {
+        if (running) {
+            running = false;
+            Choreographer.getInstance().removeFrameCallback(this);
+        }
+    }
+
+    boolean isRunning() {
+        return running;
+    }
+
+    long getElapsedNanos() {
+        return System.nanoTime() - startNanos;
+    }
+
+    /**
+     * number of times between two frames, one less than the frames
+     **/
+    int getIntervalCount() {
+        return intervalCount;
+    }
+
+    int getJankFrameCount() {
+        return jankFrameCount;
+    }
+
+    /**
+     * times between two frames from the shortest
+     **/
+    long[] getSortedIntervals() {
+        long[] sorted = Arrays.copyOf(intervalNanos, intervalCount);
+        Arrays.sort(sorted);
+        return sorted;
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        if (!running) {
+            return;
+        }
+        if (lastFrameNanos != 0) {
+            long interval = frameTimeNanos - lastFrameNanos;
+            if (intervalCount == intervalNanos.length) {
+                intervalNanos = Arrays.copyOf(intervalNanos, intervalCount * 2);
+            }
+            intervalNanos[intervalCount++] = interval;
+            long skipped = (interval + frameIntervalNanos / 2) / frameIntervalNanos - 1;
+            if (skipped > 0) {
+                droppedFrameCount += skipped;
+                jankFrameCount++;
+            }
+        }
+        lastFrameNanos = frameTimeNanos;
+        frameCount++;
+        if (frameListener != null) {
+            frameListener.onFrame(frameTimeNanos);
+        }
+        if (running) {
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+    }
+}
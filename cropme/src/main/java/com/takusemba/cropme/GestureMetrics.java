@@ -0,0 +1,41 @@
+package com.takusemba.cropme;
+
+/**
+ * GestureMetrics
+ *
+ * @author takusemba
+ * @since 17/10/2026
+ **/
+public final class GestureMetrics {
+
+    private final long durationNanos;
+    private final int frameCount;
+    private final int droppedFrameCount;
+
+    GestureMetrics(long durationNanos, int frameCount, int droppedFrameCount) {
+        this.durationNanos = durationNanos;
+        this.frameCount = frameCount;
+        this.droppedFrameCount = droppedFrameCount;
+    }
+
+    /**
+     * time from the first touch to the end of the gesture
+     **/
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    /**
+     * frames drawn during the gesture
+     **/
+    public int getFrameCount() {
+        return frameCount;
+    }
+
+    /**
+     * vsyncs which passed without a frame during the gesture
+     **/
+    public int getDroppedFrameCount() {
+        return droppedFrameCount;
+    }
+}
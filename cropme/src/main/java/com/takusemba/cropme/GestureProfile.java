@@ -0,0 +1,106 @@
+package com.takusemba.cropme;
+
+/**
+ * GestureProfile
+ *
+ * frame times of one gesture session, from touch down until the image settles,
+ * and where the main thread spent its time during the session.
+ *
+ * @author takusemba
+ * @since 17/10/2026
+ **/
+public final class GestureProfile {
+
+    private final long durationNanos;
+    private final int frameCount;
+    private final long p50FrameNanos;
+    private final long p95FrameNanos;
+    private final long p99FrameNanos;
+    private final int jankFrameCount;
+    private final int touchEventCount;
+    private final int maxTouchEventsPerFrame;
+    private final long detectActionNanos;
+    private final long reMoveNanos;
+    private final long overlayDrawNanos;
+
+    GestureProfile(long durationNanos, int frameCount, long p50FrameNanos, long p95FrameNanos, long p99FrameNanos,
+                   int jankFrameCount, int touchEventCount, int maxTouchEventsPerFrame,
+                   long detectActionNanos, long reMoveNanos, long overlayDrawNanos) {
+        this.durationNanos = durationNanos;
+        this.frameCount = frameCount;
+        this.p50FrameNanos = p50FrameNanos;
+        this.p95FrameNanos = p95FrameNanos;
+        this.p99FrameNanos = p99FrameNanos;
+        this.jankFrameCount = jankFrameCount;
+        this.touchEventCount = touchEventCount;
+        this.maxTouchEventsPerFrame = maxTouchEventsPerFrame;
+        this.detectActionNanos = detectActionNanos;
+        this.reMoveNanos = reMoveNanos;
+        this.overlayDrawNanos = overlayDrawNanos;
+    }
+
+    /**
+     * time from touch down until the image settles
+     **/
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    public int getFrameCount() {
+        return frameCount;
+    }
+
+    /**
+     * median time between two frames
+     **/
+    public long getP50FrameNanos() {
+        return p50FrameNanos;
+    }
+
+    public long getP95FrameNanos() {
+        return p95FrameNanos;
+    }
+
+    public long getP99FrameNanos() {
+        return p99FrameNanos;
+    }
+
+    /**
+     * frames which came later than one and a half vsyncs after the previous one
+     **/
+    public int getJankFrameCount() {
+        return jankFrameCount;
+    }
+
+    public int getTouchEventCount() {
+        return touchEventCount;
+    }
+
+    /**
+     * the most touch events handled between two frames
+     **/
+    public int getMaxTouchEventsPerFrame() {
+        return maxTouchEventsPerFrame;
+    }
+
+    /**
+     * time spent in detecting gestures from touch events
+     **/
+    public long getDetectActionNanos() {
+        return detectActionNanos;
+    }
+
+    /**
+     * time spent in checking whether the image has to be moved back into the crop box
+     **/
+    public long getReMoveNanos() {
+        return reMoveNanos;
+    }
+
+    /**
+     * time spent in drawing the overlay
+     **/
+    public long getOverlayDrawNanos() {
+        return overlayDrawNanos;
+    }
+}
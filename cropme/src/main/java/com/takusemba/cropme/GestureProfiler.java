@@ -0,0 +1,124 @@
+package com.takusemba.cropme;
+
+import android.content.Context;
+import android.view.MotionEvent;
+
+import java.util.Arrays;
+
+/**
+ * GestureProfiler
+ *
+ * records every frame of a gesture session with {@link FrameMonitor}. a session starts on touch down
+ * and ends on the first frame after touch up where nothing is animating. time spent in hot paths is
+ * added by {@link #addSection(int, long)}. must be used on the main thread.
+ *
+ * @author takusemba
+ * @since 17/10/2026
+ **/
+class GestureProfiler implements FrameMonitor.FrameListener {
+
+    static final int SECTION_DETECT_ACTION = 0;
+    static final int SECTION_RE_MOVE = 1;
+    static final int SECTION_OVERLAY_DRAW = 2;
+
+    /**
+     * what the profiler needs to know from the view
+     **/
+    interface Callback {
+
+        /**
+         * true if the image is still moving or scaling by itself
+         **/
+        boolean isAnimating();
+
+        void onProfiled(GestureProfile profile);
+    }
+
+    private final Callback callback;
+    private final FrameMonitor frameMonitor;
+    private final long[] sections = new long[3];
+
+    private boolean touching = false;
+    private int touchEventCount;
+    private int touchEventsInFrame;
+    private int maxTouchEventsPerFrame;
+
+    GestureProfiler(Context context, Callback callback) {
+        this.callback = callback;
+        this.frameMonitor = new FrameMonitor(context, this);
+    }
+
+    /**
+     * called on every touch event before it is handled
+     **/
+    void onTouchEvent(int actionMasked) {
+        if (actionMasked == MotionEvent.ACTION_DOWN) {
+            if (frameMonitor.isRunning()) {
+                finish();
+            }
+            start();
+        }
+        if (!frameMonitor.isRunning()) {
+            return;
+        }
+        touchEventCount++;
+        touchEventsInFrame++;
+        if (actionMasked == MotionEvent.ACTION_UP || actionMasked == MotionEvent.ACTION_CANCEL) {
+            touching = false;
+        }
+    }
+
+    /**
+     * add time spent in one of the sections while a session is running
+     **/
+    void addSection(int section, long nanos) {
+        if (frameMonitor.isRunning()) {
+            sections[section] += nanos;
+        }
+    }
+
+    /**
+     * stop without reporting
+     **/
+    void cancel() {
+        frameMonitor.cancel();
+    }
+
+    @Override
+    public void onFrame(long frameTimeNanos) {
+        maxTouchEventsPerFrame = Math.max(maxTouchEventsPerFrame, touchEventsInFrame);
+        touchEventsInFrame = 0;
+        if (!touching && !callback.isAnimating()) {
+            finish();
+        }
+    }
+
+    private void start() {
+        touching = true;
+        touchEventCount = 0;
+        touchEventsInFrame = 0;
+        maxTouchEventsPerFrame = 0;
+        Arrays.fill(sections, 0);
+        frameMonitor.start();
+    }
+
+    private void finish() {
+        frameMonitor.cancel();
+        long[] sorted = frameMonitor.getSortedIntervals();
+        callback.onProfiled(new GestureProfile(frameMonitor.getElapsedNanos(), frameMonitor.getIntervalCount(),
+                percentile(sorted, 50), percentile(sorted, 95), percentile(sorted, 99),
+                frameMonitor.getJankFrameCount(), touchEventCount, maxTouchEventsPerFrame,
+                sections[SECTION_DETECT_ACTION], sections[SECTION_RE_MOVE], sections[SECTION_OVERLAY_DRAW]));
+    }
+
+    /**
+     * nearest rank percentile of sorted values, or 0 if there is none
+     **/
+    private static long percentile(long[] sorted, int percent) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (sorted.length * percent + 99) / 100;
+        return sorted[Math.max(rank, 1) - 1];
+    }
+}
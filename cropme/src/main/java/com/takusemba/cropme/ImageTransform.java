@@ -0,0 +1,168 @@
+package com.takusemba.cropme;
+
+import android.graphics.Matrix;
+import android.graphics.RectF;
+
+import com.takusemba.cropme.engine.CropEngine;
+import com.takusemba.cropme.engine.FloatRect;
+
+/**
+ * ImageTransform
+ *
+ * position, zoom and rotation of the image in {@link CropImageView}. the image is laid out in baseRect,
+ * scaled and rotated around its center and then translated. everything which draws, animates or crops the
+ * image reads the same model, so one change means one matrix update and one invalidation.
+ *
+ * @author takusemba
+ * @since 17/10/2026
+ **/
+class ImageTransform {
+
+    /**
+     * listener which is called when the transform changes
+     **/
+    interface OnTransformChangedListener {
+
+        void onTransformChanged();
+    }
+
+    private final RectF baseRect = new RectF();
+    private final FloatRect engineBaseRect = new FloatRect();
+    private final FloatRect engineImageRect = new FloatRect();
+    private final Matrix matrix = new Matrix();
+    private boolean matrixDirty = true;
+
+    private float translationX;
+    private float translationY;
+    private float scale = 1;
+    private float rotation;
+
+    private OnTransformChangedListener listener;
+
+    void setOnTransformChangedListener(OnTransformChangedListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * set rect of the image when it is neither scaled nor translated
+     **/
+    void setBaseRect(float left, float top, float right, float bottom) {
+        if (baseRect.left == left && baseRect.top == top && baseRect.right == right && baseRect.bottom == bottom) {
+            return;
+        }
+        baseRect.set(left, top, right, bottom);
+        notifyChanged();
+    }
+
+    RectF getBaseRect() {
+        return baseRect;
+    }
+
+    float getTranslationX() {
+        return translationX;
+    }
+
+    void setTranslationX(float translationX) {
+        this.translationX = translationX;
+        notifyChanged();
+    }
+
+    float getTranslationY() {
+        return translationY;
+    }
+
+    void setTranslationY(float translationY) {
+        this.translationY = translationY;
+        notifyChanged();
+    }
+
+    float getScale() {
+        return scale;
+    }
+
+    /**
+     * scale around the center of the image
+     **/
+    void setScale(float scale) {
+        this.scale = scale;
+        notifyChanged();
+    }
+
+    /**
+     * set translation and scale at once, so they are one change
+     **/
+    void set(float translationX, float translationY, float scale) {
+        this.translationX = translationX;
+        this.translationY = translationY;
+        this.scale = scale;
+        notifyChanged();
+    }
+
+    /**
+     * scale by factor keeping the point (focusX, focusY) in view coordinates where it is
+     **/
+    void scaleBy(float factor, float focusX, float focusY) {
+        float centerX = baseRect.centerX() + translationX;
+        float centerY = baseRect.centerY() + translationY;
+        translationX = focusX + (centerX - focusX) * factor - baseRect.centerX();
+        translationY = focusY + (centerY - focusY) * factor - baseRect.centerY();
+        scale *= factor;
+        notifyChanged();
+    }
+
+    /**
+     * rotation in degrees clockwise around the center of the image
+     **/
+    float getRotation() {
+        return rotation;
+    }
+
+    void setRotation(float rotation) {
+        this.rotation = rotation;
+        notifyChanged();
+    }
+
+    /**
+     * rotate by degrees keeping the point (focusX, focusY) in view coordinates where it is
+     **/
+    void rotateBy(float degrees, float focusX, float focusY) {
+        double radians = Math.toRadians(degrees);
+        float cos = (float) Math.cos(radians);
+        float sin = (float) Math.sin(radians);
+        float dx = baseRect.centerX() + translationX - focusX;
+        float dy = baseRect.centerY() + translationY - focusY;
+        translationX = focusX + dx * cos - dy * sin - baseRect.centerX();
+        translationY = focusY + dx * sin + dy * cos - baseRect.centerY();
+        rotation += degrees;
+        notifyChanged();
+    }
+
+    /**
+     * matrix which maps baseRect to where the image is shown. must not be modified.
+     **/
+    Matrix getMatrix() {
+        if (matrixDirty) {
+            matrix.setScale(scale, scale, baseRect.centerX(), baseRect.centerY());
+            matrix.postRotate(rotation, baseRect.centerX(), baseRect.centerY());
+            matrix.postTranslate(translationX, translationY);
+            matrixDirty = false;
+        }
+        return matrix;
+    }
+
+    /**
+     * rect where the image is shown in view coordinates, before it is rotated around its center
+     **/
+    void getImageRect(RectF out) {
+        engineBaseRect.set(baseRect.left, baseRect.top, baseRect.right, baseRect.bottom);
+        CropEngine.transformedRect(engineBaseRect, scale, translationX, translationY, engineImageRect);
+        out.set(engineImageRect.left, engineImageRect.top, engineImageRect.right, engineImageRect.bottom);
+    }
+
+    private void notifyChanged() {
+        matrixDirty = true;
+        if (listener != null) {
+            listener.onTransformChanged();
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.takusemba.cropme;
+
+import android.graphics.Bitmap;
+
+/**
+ * OnBatchCropListener
+ *
+ * callbacks of jobs are called on worker threads, for several jobs at the same time.
+ *
+ * @author takusemba
+ * @since 17/10/2026
+ **/
+public interface OnBatchCropListener {
+
+    /**
+     * called on a worker thread when a job is cropped. it may be called for other jobs at the same time.
+     * the next job does not start on this worker until this returns, and the bitmap belongs to the listener.
+     *
+     * @param index position of the job in the jobs
+     **/
+    void onCropped(int index, BatchCropper.Job job, Bitmap bitmap);
+
+    /**
+     * called on a worker thread when a job can not be cropped. the batch goes on.
+     **/
+    void onFailed(int index, BatchCropper.Job job);
+
+    /**
+     * called once when every job is done, or when the jobs in progress are done after the batch is cancelled.
+     * no callback for a job comes after this.
+     **/
+    void onFinished(BatchMetrics metrics);
+}
@@ -0,0 +1,32 @@
+package com.takusemba.cropme;
+
+import java.io.File;
+
+/**
+ * OnBatchCropToListener
+ *
+ * callbacks of jobs are called on worker threads, for several jobs at the same time.
+ *
+ * @author takusemba
+ * @since 17/10/2026
+ **/
+public interface OnBatchCropToListener {
+
+    /**
+     * called on a worker thread when a job is cropped and written. it may be called for other jobs at the same time.
+     *
+     * @param index position of the job in the jobs
+     **/
+    void onCropped(int index, BatchCropper.Job job, File file);
+
+    /**
+     * called on a worker thread when a job can not be cropped or written. the batch goes on.
+     **/
+    void onFailed(int index, BatchCropper.Job job);
+
+    /**
+     * called once when every job is done, or when the jobs in progress are done after the batch is cancelled.
+     * no callback for a job comes after this.
+     **/
+    void onFinished(BatchMetrics metrics);
+}
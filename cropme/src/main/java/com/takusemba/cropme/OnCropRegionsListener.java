@@ -0,0 +1,26 @@
+package com.takusemba.cropme;
+
+import android.graphics.Bitmap;
+
+import java.util.List;
+
+/**
+ * OnCropRegionsListener
+ *
+ * @author takusemba
+ * @since 17/10/2026
+ **/
+public interface OnCropRegionsListener {
+
+    /**
+     * called when every region is cropped
+     *
+     * @param bitmaps result bitmaps in the same order as the specs
+     **/
+    void onSuccess(List<Bitmap> bitmaps);
+
+    /**
+     * called when any of the regions can not be cropped
+     **/
+    void onFailure();
+}
@@ -0,0 +1,20 @@
+package com.takusemba.cropme;
+
+/**
+ * OnCropToListener
+ *
+ * @author takusemba
+ * @since 17/10/2026
+ **/
+public interface OnCropToListener {
+
+    /**
+     * called when the cropped image is written
+     **/
+    void onSuccess();
+
+    /**
+     * called when cropping or writing is failed
+     **/
+    void onFailure();
+}
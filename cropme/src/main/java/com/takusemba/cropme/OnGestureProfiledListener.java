@@ -0,0 +1,15 @@
+package com.takusemba.cropme;
+
+/**
+ * OnGestureProfiledListener
+ *
+ * @author takusemba
+ * @since 17/10/2026
+ **/
+public interface OnGestureProfiledListener {
+
+    /**
+     * called on the main thread when the image settles after a gesture
+     **/
+    void onGestureProfiled(GestureProfile profile);
+}
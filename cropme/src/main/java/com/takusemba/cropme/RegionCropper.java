@@ -0,0 +1,227 @@
+package com.takusemba.cropme;
+
+import android.content.ContentResolver;
+import android.graphics.Bitmap;
+import android.graphics.BitmapRegionDecoder;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.net.Uri;
+import android.support.annotation.Nullable;
+
+import com.takusemba.cropme.engine.CropEngine;
+import com.takusemba.cropme.engine.IntRect;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * RegionCropper
+ *
+ * crops several regions of one source on the given executor. the source is read into memory once.
+ * a region decoder decodes one region at a time, so each worker opens its own decoder over those bytes
+ * and crops regions one after another until none is left. there are no more workers than processors,
+ * nor than threads of the executor when it tells how many it has.
+ * the bitmap which is already decoded is cropped from when the source can not be decoded by region.
+ *
+ * @author takusemba
+ * @since 17/10/2026
+ **/
+class RegionCropper {
+
+    /**
+     * callback which is called on a worker thread when every region is done
+     **/
+    interface Callback {
+
+        /**
+         * @param results cropped bitmaps in the same order as the specs, or null if any of them failed
+         **/
+        void onFinished(@Nullable List<Bitmap> results);
+    }
+
+    private final ContentResolver resolver;
+    @Nullable
+    private final Uri sourceUri;
+    @Nullable
+    private final Bitmap bitmap;
+    private final int orientation;
+    private final List<CropSpec> specs;
+    private final Executor executor;
+    private final CropTask task;
+    @Nullable
+    private final BitmapPool pool;
+    private final Callback callback;
+
+    private final Bitmap[] results;
+    private final AtomicInteger nextIndex = new AtomicInteger();
+    private final AtomicInteger remainingWorkers;
+    private volatile boolean failed = false;
+
+    /**
+     * bytes of the source which every worker decodes from. set before workers start.
+     **/
+    @Nullable
+    private byte[] source;
+
+    /**
+     * @param orientation exif orientation of both sourceUri and bitmap. rects of specs are of the upright image
+     **/
+    RegionCropper(ContentResolver resolver, @Nullable Uri sourceUri, @Nullable Bitmap bitmap, int orientation,
+                  List<CropSpec> specs, Executor executor, CropTask task, @Nullable BitmapPool pool, Callback callback) {
+        this.resolver = resolver;
+        this.sourceUri = sourceUri;
+        this.bitmap = bitmap;
+        this.orientation = orientation;
+        this.specs = specs;
+        this.executor = executor;
+        this.task = task;
+        this.pool = pool;
+        this.callback = callback;
+        this.results = new Bitmap[specs.size()];
+        // no specs still finish on a worker, with no results
+        this.remainingWorkers = new AtomicInteger(Math.max(1, Math.min(specs.size(), maxWorkers(executor))));
+    }
+
+    void start() {
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                if (!task.isCancelled() && sourceUri != null && !specs.isEmpty()) {
+                    source = BitmapLoader.readBytes(resolver, sourceUri);
+                }
+                // this task is a worker too
+                for (int i = remainingWorkers.get(); i > 1; i--) {
+                    executor.execute(new Runnable() {
+                        @Override
+                        public void run() {
+                            cropRegions();
+                        }
+                    });
+                }
+                cropRegions();
+            }
+        });
+    }
+
+    private static int maxWorkers(Executor executor) {
+        int workers = Runtime.getRuntime().availableProcessors();
+        if (executor instanceof ThreadPoolExecutor) {
+            workers = Math.min(workers, ((ThreadPoolExecutor) executor).getMaximumPoolSize());
+        }
+        return workers;
+    }
+
+    /**
+     * crop regions which no other worker has taken until none is left or any of them fails
+     **/
+    private void cropRegions() {
+        BitmapRegionDecoder decoder = null;
+        boolean opened = false;
+        try {
+            int index;
+            while (!failed && !task.isCancelled() && (index = nextIndex.getAndIncrement()) < specs.size()) {
+                // opened only once a region is taken, so a worker which finds none left costs nothing
+                if (!opened && source != null) {
+                    decoder = BitmapLoader.newRegionDecoder(source);
+                    opened = true;
+                }
+                if (decoder == null && bitmap == null) {
+                    failed = true;
+                    break;
+                }
+                Bitmap result;
+                try {
+                    result = decoder != null
+                            ? decodeRegion(decoder, orientation, specs.get(index), pool)
+                            : cropBitmap(specs.get(index));
+                } catch (RuntimeException e) {
+                    result = null;
+                }
+                results[index] = result;
+                if (result == null) {
+                    failed = true;
+                }
+            }
+        } finally {
+            if (decoder != null) {
+                decoder.recycle();
+            }
+        }
+        if (remainingWorkers.decrementAndGet() == 0) {
+            finish(!failed && !task.isCancelled());
+        }
+    }
+
+    /**
+     * decode the region of spec subsampled as much as the output size allows,
+     * then turn it upright and scale it to the output size in one pass
+     *
+     * @param orientation exif orientation of the source which decoder reads
+     * @param pool        pool to take the memory of the result from. can be null
+     **/
+    @Nullable
+    static Bitmap decodeRegion(BitmapRegionDecoder decoder, int orientation, CropSpec spec, @Nullable BitmapPool pool) {
+        Rect region = toOrientedRegion(spec.rect, orientation, decoder.getWidth(), decoder.getHeight());
+        if (region.isEmpty()) {
+            return null;
+        }
+        int inSampleSize = CropEngine.calculateInSampleSize(region.width(), region.height(),
+                spec.outputWidth, spec.outputHeight);
+        IntRect stored = new IntRect(region.left, region.top, region.right, region.bottom);
+        CropEngine.toStoredRect(orientation, decoder.getWidth(), decoder.getHeight(), stored, stored);
+        Bitmap decoded = BitmapLoader.decodeRegion(decoder, new Rect(stored.left, stored.top, stored.right, stored.bottom),
+                inSampleSize, spec.config, pool);
+        if (decoded == null) {
+            return null;
+        }
+        if (orientation == CropEngine.ORIENTATION_NORMAL
+                && decoded.getWidth() == spec.outputWidth && decoded.getHeight() == spec.outputHeight) {
+            return decoded;
+        }
+        boolean swapped = CropEngine.swapsDimensions(orientation);
+        Rect decodedRegion = new Rect(0, 0, swapped ? decoded.getHeight() : decoded.getWidth(),
+                swapped ? decoded.getWidth() : decoded.getHeight());
+        Bitmap result = Cropper.draw(decoded, orientation, decodedRegion, spec.outputWidth, spec.outputHeight, spec.config, pool);
+        Cropper.release(decoded, pool);
+        return result;
+    }
+
+    @Nullable
+    private Bitmap cropBitmap(CropSpec spec) {
+        Rect region = toOrientedRegion(spec.rect, orientation, bitmap.getWidth(), bitmap.getHeight());
+        if (region.isEmpty()) {
+            return null;
+        }
+        return Cropper.draw(bitmap, orientation, region, spec.outputWidth, spec.outputHeight, spec.config, pool);
+    }
+
+    private void finish(boolean succeeded) {
+        if (succeeded) {
+            callback.onFinished(Arrays.asList(results));
+            return;
+        }
+        for (Bitmap result : results) {
+            if (result != null) {
+                Cropper.release(result, pool);
+            }
+        }
+        callback.onFinished(null);
+    }
+
+    /**
+     * @param width  width of the stored pixels
+     * @param height height of the stored pixels
+     **/
+    static Rect toOrientedRegion(RectF normalized, int orientation, int width, int height) {
+        if (CropEngine.swapsDimensions(orientation)) {
+            int stored = width;
+            width = height;
+            height = stored;
+        }
+        return new Rect(Math.round(normalized.left * width), Math.round(normalized.top * height),
+                Math.round(normalized.right * width), Math.round(normalized.bottom * height));
+    }
+}
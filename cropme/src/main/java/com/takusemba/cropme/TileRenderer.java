@@ -0,0 +1,329 @@
+package com.takusemba.cropme;
+
+import android.content.ContentResolver;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.BitmapRegionDecoder;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.net.Uri;
+import android.util.LongSparseArray;
+import android.view.View;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.concurrent.Executor;
+
+/**
+ * TileRenderer
+ *
+ * draws the visible part of a large image in tiles decoded with {@link BitmapRegionDecoder}
+ * at the resolution which the current scale needs. tiles are kept in a cache bounded by bytes,
+ * so memory stays flat no matter how big the source is. tiles are keyed by primitive longs,
+ * so drawing tiles which are already decoded allocates nothing.
+ *
+ * @author takusemba
+ * @since 17/10/2026
+ **/
+class TileRenderer {
+
+    /**
+     * size of a tile in decoded pixels
+     **/
+    private static final int TILE_SIZE = 512;
+
+    private static final int INITIAL_VISIBLE_TILES = 16;
+
+    private final View view;
+    private final ContentResolver resolver;
+    private final Uri uri;
+    private final int sourceWidth;
+    private final int sourceHeight;
+    private final int baseSampleSize;
+    private final Executor executor;
+
+    private final TileCache cache;
+    private final LongSparseArray<Boolean> requested = new LongSparseArray<>();
+
+    private final Object visibleLock = new Object();
+
+    /**
+     * keys of tiles which the last draw wanted, guarded by visibleLock
+     **/
+    private long[] visibleKeys = new long[INITIAL_VISIBLE_TILES];
+    private int visibleCount;
+
+    private final Paint paint = new Paint(Paint.FILTER_BITMAP_FLAG);
+    private final RectF tileRect = new RectF();
+    private final Rect sourceRect = new Rect();
+
+    private volatile BitmapRegionDecoder decoder;
+    private volatile boolean released = false;
+
+    /**
+     * @param baseSampleSize inSampleSize of the bitmap which is already drawn under the tiles
+     * @param cacheBytes     max bytes of tiles kept in memory
+     **/
+    TileRenderer(View view, ContentResolver resolver, Uri uri, int sourceWidth, int sourceHeight,
+                 int baseSampleSize, int cacheBytes, Executor executor) {
+        this.view = view;
+        this.resolver = resolver;
+        this.uri = uri;
+        this.sourceWidth = sourceWidth;
+        this.sourceHeight = sourceHeight;
+        this.baseSampleSize = baseSampleSize;
+        this.executor = executor;
+        this.cache = new TileCache(cacheBytes);
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                openDecoder();
+            }
+        });
+    }
+
+    /**
+     * draw tiles which cover visibleRect
+     *
+     * @param canvas      canvas translated to the top left of the image which is not scaled
+     * @param imageWidth  width of the image which is not scaled
+     * @param imageHeight height of the image which is not scaled
+     * @param visibleRect visible part of the image in the coordinates of canvas
+     * @param imageScale  scale applied to the image on screen
+     **/
+    void draw(Canvas canvas, float imageWidth, float imageHeight, RectF visibleRect, float imageScale) {
+        if (decoder == null || imageWidth <= 0 || imageHeight <= 0) {
+            return;
+        }
+        int sampleSize = calculateSampleSize(imageWidth * imageScale);
+        synchronized (visibleLock) {
+            visibleCount = 0;
+        }
+        if (baseSampleSize <= sampleSize) {
+            return;
+        }
+
+        float toViewX = imageWidth / sourceWidth;
+        float toViewY = imageHeight / sourceHeight;
+        int tileSourceSize = TILE_SIZE * sampleSize;
+        int firstColumn = Math.max(0, (int) (visibleRect.left / toViewX) / tileSourceSize);
+        int lastColumn = Math.min((sourceWidth - 1) / tileSourceSize, (int) (visibleRect.right / toViewX) / tileSourceSize);
+        int firstRow = Math.max(0, (int) (visibleRect.top / toViewY) / tileSourceSize);
+        int lastRow = Math.min((sourceHeight - 1) / tileSourceSize, (int) (visibleRect.bottom / toViewY) / tileSourceSize);
+
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int column = firstColumn; column <= lastColumn; column++) {
+                long key = toKey(sampleSize, column, row);
+                addVisible(key);
+                Bitmap tile = cache.get(key);
+                if (tile == null) {
+                    request(key, sampleSize, column, row);
+                    continue;
+                }
+                setSourceRect(sampleSize, column, row, sourceRect);
+                tileRect.set(sourceRect.left * toViewX, sourceRect.top * toViewY,
+                        sourceRect.right * toViewX, sourceRect.bottom * toViewY);
+                canvas.drawBitmap(tile, null, tileRect, paint);
+            }
+        }
+    }
+
+    /**
+     * stop decoding and release all tiles. this renderer can not be used after this.
+     **/
+    void release() {
+        released = true;
+        cache.evictAll();
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                BitmapRegionDecoder current = decoder;
+                decoder = null;
+                if (current != null) {
+                    current.recycle();
+                }
+            }
+        });
+    }
+
+    /**
+     * the largest power of 2 which does not lose detail when the image is shown displayWidth wide
+     **/
+    private int calculateSampleSize(float displayWidth) {
+        float sourcePerScreenPixel = sourceWidth / displayWidth;
+        int sampleSize = 1;
+        while (sampleSize * 2 <= sourcePerScreenPixel) {
+            sampleSize *= 2;
+        }
+        return sampleSize;
+    }
+
+    private void addVisible(long key) {
+        synchronized (visibleLock) {
+            if (visibleCount == visibleKeys.length) {
+                visibleKeys = Arrays.copyOf(visibleKeys, visibleCount * 2);
+            }
+            visibleKeys[visibleCount++] = key;
+        }
+    }
+
+    private void request(final long key, final int sampleSize, final int column, final int row) {
+        synchronized (requested) {
+            if (requested.indexOfKey(key) >= 0) {
+                return;
+            }
+            requested.put(key, Boolean.TRUE);
+        }
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    Bitmap tile = isWanted(key) ? decodeTile(sampleSize, column, row) : null;
+                    if (tile != null) {
+                        cache.put(key, tile);
+                        view.postInvalidate();
+                    }
+                } finally {
+                    synchronized (requested) {
+                        requested.delete(key);
+                    }
+                }
+            }
+        });
+    }
+
+    private boolean isWanted(long key) {
+        if (released) {
+            return false;
+        }
+        synchronized (visibleLock) {
+            for (int i = 0; i < visibleCount; i++) {
+                if (visibleKeys[i] == key) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private Bitmap decodeTile(int sampleSize, int column, int row) {
+        BitmapRegionDecoder current = decoder;
+        if (current == null) {
+            return null;
+        }
+        Rect region = new Rect();
+        setSourceRect(sampleSize, column, row, region);
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inSampleSize = sampleSize;
+        try {
+            return current.decodeRegion(region, options);
+        } catch (IllegalStateException e) {
+            // decoder is recycled while decoding
+            return null;
+        }
+    }
+
+    private void setSourceRect(int sampleSize, int column, int row, Rect out) {
+        int tileSourceSize = TILE_SIZE * sampleSize;
+        out.set(column * tileSourceSize, row * tileSourceSize,
+                Math.min((column + 1) * tileSourceSize, sourceWidth),
+                Math.min((row + 1) * tileSourceSize, sourceHeight));
+    }
+
+    private void openDecoder() {
+        if (released) {
+            return;
+        }
+        InputStream stream = null;
+        try {
+            stream = resolver.openInputStream(uri);
+            if (stream != null) {
+                BitmapRegionDecoder opened = BitmapRegionDecoder.newInstance(stream, false);
+                if (released) {
+                    opened.recycle();
+                    return;
+                }
+                decoder = opened;
+                view.postInvalidate();
+            }
+        } catch (IOException e) {
+            // draw only the base image
+        } finally {
+            BitmapLoader.closeQuietly(stream);
+        }
+    }
+
+    private static long toKey(int sampleSize, int column, int row) {
+        return ((long) sampleSize << 48) | ((long) row << 24) | column;
+    }
+
+    /**
+     * tiles bounded by bytes. the tile drawn least recently is evicted first.
+     * a tile is allocated only when it is put, which happens on the executor.
+     **/
+    private static final class TileCache {
+
+        private final int maxBytes;
+        private final LongSparseArray<Tile> tiles = new LongSparseArray<>();
+
+        private int bytes;
+        private long clock;
+
+        TileCache(int maxBytes) {
+            this.maxBytes = maxBytes;
+        }
+
+        synchronized Bitmap get(long key) {
+            Tile tile = tiles.get(key);
+            if (tile == null) {
+                return null;
+            }
+            tile.lastUsed = ++clock;
+            return tile.bitmap;
+        }
+
+        synchronized void put(long key, Bitmap bitmap) {
+            Tile previous = tiles.get(key);
+            if (previous != null) {
+                bytes -= previous.byteCount;
+            }
+            Tile tile = new Tile(bitmap, ++clock);
+            tiles.put(key, tile);
+            bytes += tile.byteCount;
+            trimTo(maxBytes);
+        }
+
+        synchronized void evictAll() {
+            trimTo(-1);
+        }
+
+        private void trimTo(int maxBytes) {
+            while (maxBytes < bytes && tiles.size() > 0) {
+                int oldest = 0;
+                for (int i = 1; i < tiles.size(); i++) {
+                    if (tiles.valueAt(i).lastUsed < tiles.valueAt(oldest).lastUsed) {
+                        oldest = i;
+                    }
+                }
+                bytes -= tiles.valueAt(oldest).byteCount;
+                tiles.removeAt(oldest);
+            }
+        }
+    }
+
+    private static final class Tile {
+
+        private final Bitmap bitmap;
+        private final int byteCount;
+        private long lastUsed;
+
+        Tile(Bitmap bitmap, long lastUsed) {
+            this.bitmap = bitmap;
+            this.byteCount = bitmap.getByteCount();
+            this.lastUsed = lastUsed;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.takusemba.cropme;
+
+/**
+ * TransformAnimator
+ *
+ * moves and scales the image with gestures, and animates it back into the crop box when they end.
+ *
+ * @author takusemba
+ * @since 17/10/2026
+ **/
+interface TransformAnimator {
+
+    /**
+     * stiffness when bouncing back into the crop box
+     **/
+    float STIFFNESS = 50f;
+
+    /**
+     * friction when flinging
+     **/
+    float FRICTION = 3f;
+
+    /**
+     * move image. a fling or a bounce in progress stops, but a rescale goes on.
+     *
+     * @param dx horizontal distance of how much image moves
+     * @param dy vertical distance of how much image moves
+     **/
+    void move(float dx, float dy);
+
+    /**
+     * scale image
+     *
+     * @param scale  how much image scales
+     * @param focusX x of the point which stays where it is
+     * @param focusY y of the point which stays where it is
+     **/
+    void scale(float scale, float focusX, float focusY);
+
+    /**
+     * fling image. it bounces back when it runs off of the crop box.
+     *
+     * @param velocityX horizontal velocity when starting to fling
+     * @param velocityY vertical velocity when starting to fling
+     **/
+    void fling(float velocityX, float velocityY);
+
+    /**
+     * rescale image when it is too big or small, and bounce it back when it is off of
+     * {@link CropOverlayView#resultRect}, both in one animation
+     **/
+    void settle();
+
+    /**
+     * true if image is flinging, false otherwise
+     **/
+    boolean isFlinging();
+
+    /**
+     * true if image is flinging, bouncing back or being rescaled, false otherwise
+     **/
+    boolean isAnimating();
+
+    /**
+     * stop animating and stop waiting for frames. a bounce back or rescale which is running
+     * jumps to where it ends, so the image is left within the crop box.
+     **/
+    void cancel();
+
+    /**
+     * set profiler which bounds checks report their time to. can be null
+     **/
+    void setProfiler(GestureProfiler profiler);
+}
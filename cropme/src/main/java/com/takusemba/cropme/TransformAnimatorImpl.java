@@ -0,0 +1,283 @@
+package com.takusemba.cropme;
+
+import android.graphics.RectF;
+import android.view.Choreographer;
+
+import com.takusemba.cropme.engine.CropEngine;
+import com.takusemba.cropme.engine.FloatRect;
+import com.takusemba.cropme.engine.TranslationBounds;
+
+/**
+ * TransformAnimatorImpl
+ *
+ * one simulation of translation and scale which is stepped once per frame. flinging, bouncing back and
+ * rescaling update the transform together, so a frame changes the image once. the translations which
+ * keep the crop box covered are computed when the scale to settle to is decided, not on every frame,
+ * and both axes bounce back toward the same point, so they do not pull against each other at corners.
+ *
+ * @author takusemba
+ * @since 17/10/2026
+ **/
+class TransformAnimatorImpl implements TransformAnimator {
+
+    private static final long SCALE_DURATION_NANOS = 600000000L;
+    private static final float SCALE_DECELERATION = 2;
+
+    /**
+     * velocity decays by exp(-DRAG * t) while flinging, the same drag as FlingAnimation of the support library
+     **/
+    private static final float DRAG = FRICTION * 4.2f;
+
+    /**
+     * velocity in pixels per second and distance in pixels below which the image is at rest
+     **/
+    private static final float MIN_VELOCITY = 62.5f;
+    private static final float MIN_DISTANCE = 0.5f;
+
+    /**
+     * longest step, so a frame which comes late does not throw the image far
+     **/
+    private static final float MAX_STEP_SECONDS = 0.05f;
+
+    private final ImageTransform transform;
+    private final RectF restrictionRect;
+    private final int maxScale;
+
+    /**
+     * the spring is critically damped, which is how the image bounced back without overshooting before
+     **/
+    private final float springFrequency = (float) Math.sqrt(STIFFNESS);
+
+    private final TranslationBounds bounds = new TranslationBounds();
+    private final FloatRect engineBaseRect = new FloatRect();
+    private final FloatRect engineRestriction = new FloatRect();
+    private final float[] settledTranslation = new float[2];
+
+    private boolean isFlinging = false;
+    private boolean isSpringing = false;
+    private boolean isScaling = false;
+
+    private float velocityX;
+    private float velocityY;
+    private float targetX;
+    private float targetY;
+    private float fromScale;
+    private float toScale;
+    private long scaleStartNanos;
+
+    private long lastFrameNanos;
+    private boolean framePosted = false;
+
+    private GestureProfiler profiler;
+
+    private final Choreographer.FrameCallback frameCallback = new Choreographer.FrameCallback() {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            framePosted = false;
+            step(frameTimeNanos);
+        }
+    };
+
+    TransformAnimatorImpl(ImageTransform transform, RectF restrictionRect, int maxScale) {
+        this.transform = transform;
+        this.restrictionRect = restrictionRect;
+        this.maxScale = maxScale;
+    }
+
+    @Override
+    public void move(float dx, float dy) {
+        isFlinging = false;
+        isSpringing = false;
+        stopIfIdle();
+        transform.set(transform.getTranslationX() + dx, transform.getTranslationY() + dy, transform.getScale());
+    }
+
+    @Override
+    public void scale(float scale, float focusX, float focusY) {
+        isFlinging = false;
+        isSpringing = false;
+        isScaling = false;
+        stopIfIdle();
+        transform.scaleBy(scale, focusX, focusY);
+    }
+
+    @Override
+    public void fling(float velocityX, float velocityY) {
+        isSpringing = false;
+        isFlinging = true;
+        this.velocityX = velocityX;
+        this.velocityY = velocityY;
+        updateBounds(settledScale(transform.getScale()));
+        start();
+    }
+
+    @Override
+    public void settle() {
+        float scale = transform.getScale();
+        float settledScale = settledScale(scale);
+        if (settledScale != scale) {
+            isScaling = true;
+            fromScale = scale;
+            toScale = settledScale;
+            scaleStartNanos = System.nanoTime();
+        }
+        updateBounds(settledScale);
+        float translationX = transform.getTranslationX();
+        float translationY = transform.getTranslationY();
+        bounds.settle(translationX, translationY, settledTranslation);
+        if (settledTranslation[0] != translationX || settledTranslation[1] != translationY) {
+            if (!isFlinging && !isSpringing) {
+                velocityX = 0;
+                velocityY = 0;
+            }
+            // a fling hands its velocity to the spring
+            isFlinging = false;
+            isSpringing = true;
+            targetX = settledTranslation[0];
+            targetY = settledTranslation[1];
+        }
+        if (isAnimating()) {
+            start();
+        }
+    }
+
+    @Override
+    public boolean isFlinging() {
+        return isFlinging;
+    }
+
+    @Override
+    public boolean isAnimating() {
+        return isFlinging || isSpringing || isScaling;
+    }
+
+    @Override
+    public void cancel() {
+        if (isScaling || isSpringing) {
+            float translationX = isSpringing ? targetX : transform.getTranslationX();
+            float translationY = isSpringing ? targetY : transform.getTranslationY();
+            float scale = isScaling ? toScale : transform.getScale();
+            transform.set(translationX, translationY, scale);
+        }
+        isFlinging = false;
+        isSpringing = false;
+        isScaling = false;
+        stopIfIdle();
+    }
+
+    @Override
+    public void setProfiler(GestureProfiler profiler) {
+        this.profiler = profiler;
+    }
+
+    private void step(long frameTimeNanos) {
+        float seconds = Math.max(0, Math.min(MAX_STEP_SECONDS, (frameTimeNanos - lastFrameNanos) / 1e9f));
+        lastFrameNanos = frameTimeNanos;
+        float translationX = transform.getTranslationX();
+        float translationY = transform.getTranslationY();
+        float scale = transform.getScale();
+
+        if (isScaling) {
+            float fraction = Math.max(0, (frameTimeNanos - scaleStartNanos) / (float) SCALE_DURATION_NANOS);
+            if (fraction < 1) {
+                float decelerated = 1 - (float) Math.pow(1 - fraction, 2 * SCALE_DECELERATION);
+                scale = fromScale + (toScale - fromScale) * decelerated;
+            } else {
+                scale = toScale;
+                isScaling = false;
+            }
+        }
+
+        if (isFlinging) {
+            float decay = (float) Math.exp(-DRAG * seconds);
+            translationX += velocityX * (1 - decay) / DRAG;
+            translationY += velocityY * (1 - decay) / DRAG;
+            velocityX *= decay;
+            velocityY *= decay;
+            long start = profiler != null ? System.nanoTime() : 0;
+            boolean inBounds = bounds.contains(translationX, translationY);
+            if (!inBounds) {
+                // bounce back from where the image runs off, keeping its velocity
+                bounds.settle(translationX, translationY, settledTranslation);
+                isFlinging = false;
+                isSpringing = true;
+                targetX = settledTranslation[0];
+                targetY = settledTranslation[1];
+            } else if (Math.hypot(velocityX, velocityY) < MIN_VELOCITY) {
+                isFlinging = false;
+            }
+            if (profiler != null) {
+                profiler.addSection(GestureProfiler.SECTION_RE_MOVE, System.nanoTime() - start);
+            }
+        } else if (isSpringing) {
+            float decay = (float) Math.exp(-springFrequency * seconds);
+            float offsetX = translationX - targetX;
+            float offsetY = translationY - targetY;
+            float rateX = velocityX + springFrequency * offsetX;
+            float rateY = velocityY + springFrequency * offsetY;
+            translationX = targetX + (offsetX + rateX * seconds) * decay;
+            translationY = targetY + (offsetY + rateY * seconds) * decay;
+            velocityX = (velocityX - springFrequency * rateX * seconds) * decay;
+            velocityY = (velocityY - springFrequency * rateY * seconds) * decay;
+            if (Math.hypot(translationX - targetX, translationY - targetY) < MIN_DISTANCE
+                    && Math.hypot(velocityX, velocityY) < MIN_VELOCITY) {
+                translationX = targetX;
+                translationY = targetY;
+                isSpringing = false;
+            }
+        }
+
+        transform.set(translationX, translationY, scale);
+        if (isAnimating()) {
+            postFrame();
+        }
+    }
+
+    /**
+     * scale the image settles to. a rotated image has to be bigger to cover the corners of the restriction.
+     **/
+    private float settledScale(float scale) {
+        float rotation = transform.getRotation();
+        if (rotation == 0) {
+            return CropEngine.clampScale(scale, maxScale);
+        }
+        setEngineRects();
+        return CropEngine.clampScale(scale, maxScale, engineBaseRect, rotation, engineRestriction);
+    }
+
+    private void updateBounds(float settledScale) {
+        long start = profiler != null ? System.nanoTime() : 0;
+        setEngineRects();
+        bounds.set(engineBaseRect, settledScale, transform.getRotation(), engineRestriction);
+        if (profiler != null) {
+            profiler.addSection(GestureProfiler.SECTION_RE_MOVE, System.nanoTime() - start);
+        }
+    }
+
+    private void setEngineRects() {
+        RectF baseRect = transform.getBaseRect();
+        engineBaseRect.set(baseRect.left, baseRect.top, baseRect.right, baseRect.bottom);
+        engineRestriction.set(restrictionRect.left, restrictionRect.top, restrictionRect.right, restrictionRect.bottom);
+    }
+
+    private void start() {
+        if (!framePosted) {
+            lastFrameNanos = System.nanoTime();
+            postFrame();
+        }
+    }
+
+    private void postFrame() {
+        if (!framePosted) {
+            framePosted = true;
+            Choreographer.getInstance().postFrameCallback(frameCallback);
+        }
+    }
+
+    private void stopIfIdle() {
+        if (!isAnimating() && framePosted) {
+            Choreographer.getInstance().removeFrameCallback(frameCallback);
+            framePosted = false;
+        }
+    }
+}